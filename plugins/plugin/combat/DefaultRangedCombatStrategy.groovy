@@ -125,7 +125,9 @@ final class DefaultRangedCombatStrategy implements CombatStrategy {
                 .weapon == WeaponInterface.CROSSBOW ? Equipment.ARROWS_SLOT : Equipment.WEAPON_SLOT
 
         player.setFireAmmo player.equipment.get(slot).getId()
-        player.equipment.get(slot).decrementAmount()
+        Item ammo = player.equipment.get(slot).copy()
+        ammo.decrementAmount()
+        player.equipment.set(slot, ammo)
 
         if (player.equipment.get(slot).amount == 0) {
             player.messages.sendMessage "That was your last piece of ammo!"
@@ -9,7 +9,6 @@ import com.asteria.game.character.npc.drop.NpcDropManager
 import com.asteria.game.character.npc.drop.NpcDropTable
 import com.asteria.game.character.player.Player
 import com.asteria.game.character.player.Rights
-import com.asteria.game.character.player.serialize.PlayerSerialization
 import com.asteria.game.character.player.skill.SkillData
 import com.asteria.game.character.player.skill.Skills
 import com.asteria.game.item.Item
@@ -22,6 +21,7 @@ import com.asteria.game.object.ObjectNodeManager
 import com.asteria.game.plugin.PluginListener
 import com.asteria.game.plugin.PluginSignature
 import com.asteria.game.plugin.context.CommandPlugin
+import com.asteria.game.profile.TickPhase
 import com.asteria.net.ConnectionHandler
 
 @PluginSignature(CommandPlugin.class)
@@ -58,12 +58,7 @@ final class Commands implements PluginListener<CommandPlugin> {
                     player.visible = true
                     break
                 case "save":
-                    World.players.each {
-                        World.getService().submit({
-                            ->
-                            new PlayerSerialization(it).serialize()
-                        })
-                    }
+                    World.players.each { it.save() }
                     player.messages.sendMessage "Character files have been saved for everyone online!"
                     break
                 case "setlevel":
@@ -197,6 +192,20 @@ final class Commands implements PluginListener<CommandPlugin> {
                     player.messages.sendMessage
                     players == 1 ? "There is currently 1 player online!" : "There are currently ${players} players online!"
                     break
+                case "profile":
+                    if (cmd.length > 1 && cmd[1] == "reset") {
+                        World.profiler.reset()
+                        player.messages.sendMessage "The tick profiler has been reset!"
+                        break
+                    }
+                    TickPhase.values().each {
+                        long[] times = World.profiler.getPercentiles(it)
+                        player.messages.sendMessage String.format("%s: p50= %.2fms, p99= %.2fms, max= %.2fms", it.name().toLowerCase(),
+                            times[0] / 1e6, times[1] / 1e6, times[2] / 1e6)
+                    }
+                    player.messages.sendMessage String.format("overruns: %d of %d, skipped: %d, max overrun= %.2fms",
+                        World.service.overruns, World.service.sequences, World.service.skipped, World.service.maxOverrun / 1e6)
+                    break
                 case "gfx":
                     player.graphic new Graphic(Integer.parseInt(cmd[1]))
                     break
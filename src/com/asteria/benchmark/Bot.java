@@ -0,0 +1,353 @@
+package com.asteria.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.asteria.game.GameConstants;
+import com.asteria.net.ByteOrder;
+import com.asteria.net.ISAACCipher;
+import com.asteria.net.NetworkConstants;
+import com.asteria.net.ValueType;
+import com.asteria.net.codec.MessageEncoder;
+import com.asteria.net.login.LoginResponse;
+import com.asteria.net.message.MessageBuilder;
+import com.asteria.utility.TextUtils;
+
+/**
+ * A single headless client connected to the server by the {@link BotClient}.
+ * A bot performs the login handshake exactly like a real {@code #317} client,
+ * including the RSA block, ISAAC seeding and opcode encryption, after which it
+ * decodes every incoming message and randomly walks, chats and clicks buttons
+ * once every cycle.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+final class Bot extends ByteToMessageDecoder {
+
+    /**
+     * The public RSA exponent that pairs with the private
+     * {@link NetworkConstants#RSA_EXPONENT}.
+     */
+    private static final BigInteger RSA_PUBLIC_EXPONENT = BigInteger.valueOf(65537);
+
+    /**
+     * The size of every message the server can send, {@code -1} and
+     * {@code -2} for variable sized messages and {@code -3} for messages the
+     * server never sends.
+     */
+    private static final int[] MESSAGE_SIZES = new int[256];
+
+    /**
+     * The opcode of the player updating message.
+     */
+    private static final int PLAYER_UPDATE = 81;
+
+    /**
+     * The opcode of the map region message.
+     */
+    private static final int MAP_REGION = 73;
+
+    /**
+     * The chat text bots send. The server relays chat text to other clients
+     * without unpacking it, so its contents are arbitrary.
+     */
+    private static final byte[] CHAT_TEXT = { 0x1b, 0x6f, 0x3d, 0x11, (byte) 0x9a, 0x20, 0x4c };
+
+    static {
+        Arrays.fill(MESSAGE_SIZES, -3);
+        int[][] sizes = { { 4, 6 }, { 24, 1 }, { 35, 4 }, { 36, 3 }, { 44, 5 }, { 50, 9 }, { 61, 1 }, { 70, 6 }, { 71, 3 },
+                { 73, 4 }, { 74, 2 }, { 75, 4 }, { 85, 2 }, { 87, 6 }, { 97, 2 }, { 99, 1 }, { 101, 2 }, { 106, 1 }, { 107, 0 },
+                { 108, 0 }, { 109, 0 }, { 110, 1 }, { 114, 2 }, { 117, 15 }, { 122, 4 }, { 134, 6 }, { 151, 4 }, { 156, 3 },
+                { 160, 4 }, { 164, 2 }, { 166, 6 }, { 171, 3 }, { 174, 5 }, { 177, 6 }, { 185, 2 }, { 187, 0 }, { 200, 4 },
+                { 208, 2 }, { 219, 0 }, { 221, 1 }, { 246, 6 }, { 248, 4 }, { 249, 3 }, { 254, 6 }, { 104, -1 }, { 196, -1 },
+                { 253, -1 }, { 34, -2 }, { 53, -2 }, { 65, -2 }, { 81, -2 }, { 126, -2 }, { 241, -2 } };
+        for (int[] size : sizes)
+            MESSAGE_SIZES[size[0]] = size[1];
+    }
+
+    /**
+     * The client that created this bot.
+     */
+    private final BotClient client;
+
+    /**
+     * The index of this bot.
+     */
+    private final int index;
+
+    /**
+     * The username of this bot.
+     */
+    private final String username;
+
+    /**
+     * The time in nanoseconds this bot first attempted to login.
+     */
+    private final long start;
+
+    /**
+     * The random half of the ISAAC seed generated by this bot.
+     */
+    private final long clientHalf = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * The current stage of the protocol this bot is in.
+     */
+    private Stage stage = Stage.HANDSHAKE;
+
+    /**
+     * The ISAAC that decrypts incoming opcodes.
+     */
+    private ISAACCipher decryptor;
+
+    /**
+     * The opcode of the incoming message being decoded, or {@code -1} if no
+     * opcode has been decoded yet.
+     */
+    private int opcode = -1;
+
+    /**
+     * The size of the incoming message being decoded, or {@code -1} if no
+     * size has been decoded yet.
+     */
+    private int size = -1;
+
+    /**
+     * The time in nanoseconds the last player updating message was received,
+     * or {@code 0} if none have been received yet.
+     */
+    private long lastUpdate;
+
+    /**
+     * The base {@code X} coordinate of the map region currently loaded.
+     */
+    private int baseX = -1;
+
+    /**
+     * The base {@code Y} coordinate of the map region currently loaded.
+     */
+    private int baseY = -1;
+
+    /**
+     * The task that scripts this bot once every cycle.
+     */
+    private ScheduledFuture<?> script;
+
+    /**
+     * Creates a new {@link Bot}.
+     *
+     * @param client
+     *            the client that created this bot.
+     * @param index
+     *            the index of this bot.
+     * @param start
+     *            the time in nanoseconds this bot first attempted to login.
+     */
+    public Bot(BotClient client, int index, long start) {
+        this.client = client;
+        this.index = index;
+        this.username = "bot" + index;
+        this.start = start;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        ByteBuf buf = ctx.alloc().buffer(2);
+        buf.writeByte(14);
+        buf.writeByte((int) (TextUtils.nameToHash(username) >> 16 & 31));
+        ctx.writeAndFlush(buf);
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (script != null)
+            script.cancel(false);
+        if (stage == Stage.GAME) {
+            client.disconnected();
+        } else if (stage != Stage.FAILED) {
+            client.retry(index, start);
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.channel().close();
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        switch (stage) {
+        case HANDSHAKE:
+            if (in.readableBytes() < 17)
+                return;
+            in.skipBytes(9);
+            sendLogin(ctx, in.readLong());
+            stage = Stage.LOGIN;
+            break;
+        case LOGIN:
+            if (in.readableBytes() < 3)
+                return;
+            int response = in.readUnsignedByte();
+            in.skipBytes(2);
+            if (response == LoginResponse.NORMAL.getCode()) {
+                stage = Stage.GAME;
+                client.loggedIn(System.nanoTime() - start);
+                script = ctx.channel().eventLoop().scheduleAtFixedRate(() -> script(ctx), GameConstants.CYCLE_RATE,
+                    GameConstants.CYCLE_RATE, TimeUnit.MILLISECONDS);
+            } else if (response != LoginResponse.PLEASE_TRY_AGAIN.getCode()) {
+                stage = Stage.FAILED;
+                client.failed(username, response);
+            }
+            if (stage != Stage.GAME)
+                ctx.channel().close();
+            break;
+        case GAME:
+            while (decodeMessage(in))
+                ;
+            break;
+        case FAILED:
+            in.skipBytes(in.readableBytes());
+            break;
+        }
+    }
+
+    /**
+     * Sends the login block, encrypted with RSA, and seeds the ISAAC ciphers.
+     *
+     * @param ctx
+     *            the context of the channel.
+     * @param serverHalf
+     *            the half of the ISAAC seed generated by the server.
+     */
+    private void sendLogin(ChannelHandlerContext ctx, long serverHalf) {
+        int[] seed = { (int) (clientHalf >> 32), (int) clientHalf, (int) (serverHalf >> 32), (int) serverHalf };
+        ISAACCipher encryptor = new ISAACCipher(seed.clone());
+        for (int i = 0; i < seed.length; i++)
+            seed[i] += 50;
+        decryptor = new ISAACCipher(seed);
+
+        MessageBuilder rsa = MessageBuilder.create(64);
+        rsa.put(10);
+        rsa.putLong(clientHalf);
+        rsa.putLong(serverHalf);
+        rsa.putInt(index);
+        rsa.putString(username);
+        rsa.putString("bot");
+        byte[] plain = new byte[rsa.buffer().readableBytes()];
+        rsa.buffer().readBytes(plain);
+        rsa.buffer().release();
+        byte[] encrypted = new BigInteger(plain).modPow(RSA_PUBLIC_EXPONENT, NetworkConstants.RSA_MODULUS).toByteArray();
+
+        ByteBuf buf = ctx.alloc().buffer(43 + encrypted.length);
+        buf.writeByte(16);
+        buf.writeByte(41 + encrypted.length);
+        buf.writeByte(255);
+        buf.writeShort(317);
+        buf.writeByte(0);
+        for (int i = 0; i < 9; i++)
+            buf.writeInt(0);
+        buf.writeByte(encrypted.length);
+        buf.writeBytes(encrypted);
+        ctx.pipeline().addLast(new MessageEncoder(encryptor));
+        ctx.writeAndFlush(buf);
+    }
+
+    /**
+     * Attempts to decode a single incoming message from {@code in}.
+     *
+     * @param in
+     *            the buffer to decode the message from.
+     * @return {@code true} if a message was decoded, {@code false} if more
+     *         data is needed.
+     * @throws Exception
+     *             if the server sent a message of an unknown size.
+     */
+    private boolean decodeMessage(ByteBuf in) throws Exception {
+        if (opcode == -1) {
+            if (!in.isReadable())
+                return false;
+            opcode = (in.readUnsignedByte() - decryptor.getKey()) & 0xFF;
+            size = MESSAGE_SIZES[opcode];
+            if (size == -3)
+                throw new Exception("Unknown message [opcode= " + opcode + "]");
+        }
+        if (size == -1 || size == -2) {
+            int bytes = size == -1 ? Byte.BYTES : Short.BYTES;
+            if (in.readableBytes() < bytes)
+                return false;
+            size = bytes == Byte.BYTES ? in.readUnsignedByte() : in.readUnsignedShort();
+        }
+        if (in.readableBytes() < size)
+            return false;
+        ByteBuf payload = in.readSlice(size);
+        if (opcode == PLAYER_UPDATE) {
+            long now = System.nanoTime();
+            client.updated(size, lastUpdate == 0 ? -1 : now - lastUpdate);
+            lastUpdate = now;
+        } else if (opcode == MAP_REGION) {
+            MessageBuilder msg = MessageBuilder.create(payload);
+            baseX = (msg.getShort(false, ValueType.A, ByteOrder.BIG) - 6) * 8;
+            baseY = (msg.getShort() - 6) * 8;
+        }
+        client.received(size);
+        opcode = -1;
+        size = -1;
+        return true;
+    }
+
+    /**
+     * Randomly makes this bot walk, chat or click a button, the same way the
+     * {@link WorldBenchmark} scripts its players.
+     *
+     * @param ctx
+     *            the context of the channel.
+     */
+    private void script(ChannelHandlerContext ctx) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int action = random.nextInt(100);
+        MessageBuilder msg = MessageBuilder.create(32);
+        if (action < 20 && baseX != -1) {
+            msg.newVarMessage(164);
+            msg.putShort(baseX + 40 + random.nextInt(25), ValueType.A, ByteOrder.LITTLE);
+            msg.putShort(baseY + 40 + random.nextInt(25), ByteOrder.LITTLE);
+            msg.put(0, ValueType.C);
+            msg.endVarMessage();
+        } else if (action < 22) {
+            msg.newVarMessage(4);
+            msg.put(0, ValueType.S);
+            msg.put(0, ValueType.S);
+            for (int i = CHAT_TEXT.length - 1; i >= 0; i--)
+                msg.put(CHAT_TEXT[i], ValueType.A);
+            msg.endVarMessage();
+        } else if (action < 23) {
+            msg.newMessage(185);
+            msg.putShort(random.nextBoolean() ? 152 : 153);
+        } else {
+            msg.buffer().release();
+            return;
+        }
+        ctx.channel().writeAndFlush(msg);
+    }
+
+    /**
+     * The stages of the protocol a bot can be in.
+     *
+     * @author lare96 <http://github.com/lare96>
+     */
+    private enum Stage {
+        HANDSHAKE,
+        LOGIN,
+        GAME,
+        FAILED
+    }
+}
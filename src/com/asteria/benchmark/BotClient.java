@@ -0,0 +1,295 @@
+package com.asteria.benchmark;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.asteria.game.GameConstants;
+import com.asteria.net.NetworkConstants;
+import com.asteria.utility.LoggerUtils;
+
+/**
+ * The headless load generator that connects {@link Bot}s to a running server
+ * over real sockets. Unlike the {@link WorldBenchmark}, every bot goes through
+ * the complete login protocol and every message is encoded, encrypted, sent,
+ * decoded and decrypted, so the whole networking stack is stressed.
+ * <p>
+ * <p>
+ * The client is started with the amount of bots, and optionally the amount
+ * of seconds to run for, the host and port of the server and the amount of
+ * bots that are launched per second. For example
+ * {@code java com.asteria.benchmark.BotClient 2000 120 127.0.0.1 43594 100}.
+ * Login latency, the size of every player updating message and the jitter
+ * between consecutive player updating messages are reported periodically.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class BotClient {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(BotClient.class);
+
+    /**
+     * The interval in seconds between reports.
+     */
+    private static final int REPORT_INTERVAL = 10;
+
+    /**
+     * The delay in milliseconds before a bot that was disconnected during
+     * login tries again.
+     */
+    private static final int RETRY_DELAY = 1000;
+
+    /**
+     * Determines if the native epoll transport is available.
+     */
+    private final boolean epoll = Epoll.isAvailable() && PlatformDependent.hasUnsafe();
+
+    /**
+     * The event loop group that all bots are connected through.
+     */
+    private final EventLoopGroup group = epoll ? new EpollEventLoopGroup() : new NioEventLoopGroup();
+
+    /**
+     * The bootstrap used to connect bots.
+     */
+    private final Bootstrap bootstrap = new Bootstrap();
+
+    /**
+     * The time taken by bots to login, including any retries.
+     */
+    private final BotMetric latency = new BotMetric("login latency", "ms", 1e6);
+
+    /**
+     * The size of every player updating message received.
+     */
+    private final BotMetric updateSize = new BotMetric("update size", "b", 1);
+
+    /**
+     * The difference between the cycle rate and the time between two
+     * consecutive player updating messages.
+     */
+    private final BotMetric jitter = new BotMetric("update jitter", "ms", 1e6);
+
+    /**
+     * The amount of bots currently logged in.
+     */
+    private final AtomicInteger online = new AtomicInteger();
+
+    /**
+     * The amount of times bots have had to retry their login.
+     */
+    private final AtomicInteger retries = new AtomicInteger();
+
+    /**
+     * The amount of bots that have failed to login.
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * The amount of bots that were disconnected after logging in.
+     */
+    private final AtomicInteger disconnects = new AtomicInteger();
+
+    /**
+     * The amount of payload bytes received by all bots.
+     */
+    private final AtomicLong received = new AtomicLong();
+
+    /**
+     * Determines if this client is still running and bots should retry.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new {@link BotClient}.
+     *
+     * @param host
+     *            the host of the server.
+     * @param port
+     *            the port of the server.
+     */
+    private BotClient(String host, int port) {
+        bootstrap.group(group);
+        bootstrap.channel(epoll ? EpollSocketChannel.class : NioSocketChannel.class);
+        bootstrap.remoteAddress(host, port);
+        bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        bootstrap.option(ChannelOption.ALLOCATOR, NetworkConstants.ALLOCATOR);
+    }
+
+    /**
+     * The main method of this client.
+     *
+     * @param args
+     *            the amount of bots, and optionally the amount of seconds to
+     *            run for, the host and port of the server and the amount of
+     *            bots launched per second.
+     * @throws Exception
+     *             if any errors occur while running the client.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            logger.info("Usage: BotClient <bots> [seconds] [host] [port] [rate]");
+            return;
+        }
+        int amount = Integer.parseInt(args[0]);
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        String host = args.length > 2 ? args[2] : "127.0.0.1";
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : NetworkConstants.PORT;
+        int rate = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+        new BotClient(host, port).run(amount, seconds, rate);
+        System.exit(0);
+    }
+
+    /**
+     * Launches the bots at the configured rate, reports periodically and
+     * disconnects everything once the configured amount of seconds elapse.
+     *
+     * @param amount
+     *            the amount of bots.
+     * @param seconds
+     *            the amount of seconds to run for.
+     * @param rate
+     *            the amount of bots launched per second.
+     * @throws Exception
+     *             if the client is interrupted while running.
+     */
+    private void run(int amount, int seconds, int rate) throws Exception {
+        logger.info("Launching " + amount + " bots using the " + (epoll ? "native epoll" : "NIO") + " network transport.");
+        for (int i = 0; i < amount; i++) {
+            int index = i;
+            group.schedule(() -> connect(index, System.nanoTime()), TimeUnit.SECONDS.toMillis(i) / rate, TimeUnit.MILLISECONDS);
+        }
+        group.scheduleAtFixedRate(this::report, REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.SECONDS);
+        TimeUnit.SECONDS.sleep(seconds);
+        running = false;
+        report();
+        group.shutdownGracefully().sync();
+    }
+
+    /**
+     * Connects the bot with {@code index} to the server.
+     *
+     * @param index
+     *            the index of the bot.
+     * @param start
+     *            the time in nanoseconds the bot first attempted to login.
+     */
+    private void connect(int index, long start) {
+        if (!running)
+            return;
+        Bootstrap bot = bootstrap.clone();
+        bot.handler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel ch) throws Exception {
+                ch.pipeline().addLast(new Bot(BotClient.this, index, start));
+            }
+        });
+        bot.connect().addListener(f -> {
+            if (!f.isSuccess())
+                retry(index, start);
+        });
+    }
+
+    /**
+     * Reconnects the bot with {@code index} after a short delay, because it
+     * was disconnected before it could login.
+     *
+     * @param index
+     *            the index of the bot.
+     * @param start
+     *            the time in nanoseconds the bot first attempted to login.
+     */
+    void retry(int index, long start) {
+        if (!running)
+            return;
+        retries.incrementAndGet();
+        group.schedule(() -> connect(index, start), RETRY_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that a bot has logged in.
+     *
+     * @param elapsed
+     *            the time in nanoseconds it took the bot to login.
+     */
+    void loggedIn(long elapsed) {
+        online.incrementAndGet();
+        latency.record(elapsed);
+    }
+
+    /**
+     * Records that a bot has failed to login.
+     *
+     * @param username
+     *            the username of the bot.
+     * @param response
+     *            the login response sent by the server.
+     */
+    void failed(String username, int response) {
+        failures.incrementAndGet();
+        logger.warning(username + " failed to login [response= " + response + "]");
+    }
+
+    /**
+     * Records that a bot has been disconnected after logging in.
+     */
+    void disconnected() {
+        online.decrementAndGet();
+        if (running)
+            disconnects.incrementAndGet();
+    }
+
+    /**
+     * Records that a bot has received a player updating message.
+     *
+     * @param size
+     *            the size of the message.
+     * @param gap
+     *            the time in nanoseconds since the previous player updating
+     *            message, or {@code -1} if this is the first one.
+     */
+    void updated(int size, long gap) {
+        updateSize.record(size);
+        if (gap != -1)
+            jitter.record(Math.abs(gap - TimeUnit.MILLISECONDS.toNanos(GameConstants.CYCLE_RATE)));
+    }
+
+    /**
+     * Records that a bot has received a message.
+     *
+     * @param size
+     *            the size of the message.
+     */
+    void received(int size) {
+        received.addAndGet(size);
+    }
+
+    /**
+     * Prints the current statistics and starts a new measurement interval.
+     */
+    private void report() {
+        logger.info(String.format("%d bots online, %d retries, %d failures, %d disconnects, %.1fkb received", online.get(),
+            retries.get(), failures.get(), disconnects.get(), received.getAndSet(0) / 1024.0));
+        logger.info(latency.toString());
+        logger.info(updateSize.toString());
+        logger.info(jitter.toString());
+        updateSize.reset();
+        jitter.reset();
+    }
+}
@@ -0,0 +1,131 @@
+package com.asteria.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * A thread safe rolling sample of values recorded by {@link Bot}s, from which
+ * percentiles are calculated when the {@link BotClient} reports.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+final class BotMetric {
+
+    /**
+     * The amount of values that are kept for percentile calculations.
+     */
+    private static final int SAMPLES = 100_000;
+
+    /**
+     * The name of this metric.
+     */
+    private final String name;
+
+    /**
+     * The unit values of this metric are printed in.
+     */
+    private final String unit;
+
+    /**
+     * The amount values are divided by when they are printed.
+     */
+    private final double scale;
+
+    /**
+     * The ring buffer of recorded values.
+     */
+    private final long[] samples = new long[SAMPLES];
+
+    /**
+     * The index the next value will be recorded at.
+     */
+    private int index;
+
+    /**
+     * The amount of values currently in the ring buffer.
+     */
+    private int size;
+
+    /**
+     * The amount of values recorded since this metric was last reset.
+     */
+    private long count;
+
+    /**
+     * The sum of the values recorded since this metric was last reset.
+     */
+    private long sum;
+
+    /**
+     * Creates a new {@link BotMetric}.
+     *
+     * @param name
+     *            the name of this metric.
+     * @param unit
+     *            the unit values of this metric are printed in.
+     * @param scale
+     *            the amount values are divided by when they are printed.
+     */
+    public BotMetric(String name, String unit, double scale) {
+        this.name = name;
+        this.unit = unit;
+        this.scale = scale;
+    }
+
+    /**
+     * Records {@code value}, replacing the oldest value if the ring buffer is
+     * full.
+     *
+     * @param value
+     *            the value to record.
+     */
+    public synchronized void record(long value) {
+        samples[index] = value;
+        index = (index + 1) % samples.length;
+        if (size < samples.length)
+            size++;
+        count++;
+        sum += value;
+    }
+
+    /**
+     * Discards all of the values recorded by this metric.
+     */
+    public synchronized void reset() {
+        index = 0;
+        size = 0;
+        count = 0;
+        sum = 0;
+    }
+
+    @Override
+    public String toString() {
+        long[] sorted;
+        long count;
+        long sum;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size);
+            count = this.count;
+            sum = this.sum;
+        }
+        if (sorted.length == 0)
+            return name + ": no samples";
+        Arrays.sort(sorted);
+        return String.format("%s: n= %d, avg= %.2f%s, p50= %.2f%s, p99= %.2f%s, max= %.2f%s", name, count, sum / scale / count,
+            unit, percentile(sorted, 50) / scale, unit, percentile(sorted, 99) / scale, unit, sorted[sorted.length - 1] / scale,
+            unit);
+    }
+
+    /**
+     * Gets the value at {@code percentile} from an array of sorted values.
+     *
+     * @param sorted
+     *            the sorted values.
+     * @param percentile
+     *            the percentile to get.
+     * @return the value at the percentile.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+}
@@ -0,0 +1,473 @@
+package com.asteria.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+import com.asteria.net.ByteOrder;
+import com.asteria.net.ISAACCipher;
+import com.asteria.net.NetworkConstants;
+import com.asteria.net.ValueType;
+import com.asteria.net.codec.MessageDecoder;
+import com.asteria.net.codec.MessageEncoder;
+import com.asteria.net.message.InputMessage;
+import com.asteria.net.message.MessageBuilder;
+import com.asteria.utility.LoggerUtils;
+import com.asteria.utility.json.MessageOpcodeLoader;
+import com.asteria.utility.json.MessageSizeLoader;
+
+/**
+ * The micro benchmark for the hot paths of the network codec, being the
+ * {@link MessageBuilder} write operations, {@link ISAACCipher#getKey()}, the
+ * {@link MessageEncoder} and the {@link MessageDecoder}. Each benchmark is
+ * warmed up and then measured over several fixed length iterations, after
+ * which the average time per operation is compared against the baseline
+ * results file so the effect of an optimization can be measured rather than
+ * guessed.
+ * <p>
+ * <p>
+ * The benchmark is started from the server directory, optionally with
+ * {@code write} to replace the baseline with the results of the current run.
+ * For example {@code java com.asteria.benchmark.CodecBenchmark write}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class CodecBenchmark {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(CodecBenchmark.class);
+
+    /**
+     * The path to the baseline results file.
+     */
+    private static final Path BASELINE = Paths.get("./data/benchmark/codec_baseline.txt");
+
+    /**
+     * The amount of warmup iterations executed for each benchmark.
+     */
+    private static final int WARMUP_ITERATIONS = 5;
+
+    /**
+     * The amount of measured iterations executed for each benchmark.
+     */
+    private static final int MEASURED_ITERATIONS = 10;
+
+    /**
+     * The length in milliseconds of a single iteration.
+     */
+    private static final long ITERATION_TIME = 200;
+
+    /**
+     * The amount of operations executed between checks of the elapsed time.
+     */
+    private static final int BATCH = 1000;
+
+    /**
+     * The amount of messages in the packet stream decoded by the
+     * {@link MessageDecoder} benchmark.
+     */
+    private static final int STREAM_MESSAGES = 1000;
+
+    /**
+     * The size of the chunks the packet stream is split into, matching the
+     * maximum segment size of a loopback or ethernet connection.
+     */
+    private static final int SEGMENT_SIZE = 1460;
+
+    /**
+     * The seed of the ISAAC ciphers used to encrypt and decrypt opcodes.
+     */
+    private static final int[] SEED = { 317, 377, 474, 508 };
+
+    /**
+     * The amount of random bit sequences written by both the
+     * {@link MessageBuilder} and the {@link LegacyBitWriter} to check that
+     * they produce the same bytes.
+     */
+    private static final int BIT_SEQUENCES = 20_000;
+
+    /**
+     * The value every benchmark result is folded into, so that no benchmark
+     * can be optimized away.
+     */
+    private static long sink;
+
+    /**
+     * The benchmarks to execute, by their names.
+     */
+    private final Map<String, LongSupplier> benchmarks = new LinkedHashMap<>();
+
+    /**
+     * The random generator used to create benchmark data, seeded so that runs
+     * are repeatable.
+     */
+    private final Random random = new Random(317);
+
+    /**
+     * The builder written to by the {@link MessageBuilder} benchmarks.
+     */
+    private final MessageBuilder builder = MessageBuilder.create(8192);
+
+    /**
+     * The writer written to by the {@link LegacyBitWriter} benchmark.
+     */
+    private final LegacyBitWriter legacy = new LegacyBitWriter(Unpooled.buffer(8192));
+
+    /**
+     * The data written by the {@code putBytes} benchmark.
+     */
+    private final byte[] bytes = new byte[64];
+
+    /**
+     * The cipher used by the {@code ISAACCipher} benchmark.
+     */
+    private final ISAACCipher cipher = new ISAACCipher(SEED.clone());
+
+    /**
+     * The channel the {@link MessageEncoder} benchmark writes to.
+     */
+    private final EmbeddedChannel encoder = new EmbeddedChannel(new MessageEncoder(new ISAACCipher(SEED.clone())));
+
+    /**
+     * The encoded packet stream decoded by the {@link MessageDecoder}
+     * benchmark.
+     */
+    private final ByteBuf stream;
+
+    /**
+     * Creates a new {@link CodecBenchmark}.
+     */
+    private CodecBenchmark() {
+        random.nextBytes(bytes);
+        stream = record();
+        benchmarks.put("MessageBuilder.putBits", this::putBits);
+        benchmarks.put("LegacyBitWriter.putBits", this::putLegacyBits);
+        for (ValueType type : ValueType.values()) {
+            for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG, ByteOrder.LITTLE })
+                benchmarks.put("MessageBuilder.putShort(" + type + ", " + order + ")", () -> putShort(type, order));
+        }
+        benchmarks.put("MessageBuilder.putBytes", this::putBytes);
+        benchmarks.put("ISAACCipher.getKey", cipher::getKey);
+        benchmarks.put("MessageEncoder.encode", this::encode);
+        benchmarks.put("MessageDecoder.decode(" + STREAM_MESSAGES + " messages)", this::decode);
+    }
+
+    /**
+     * The main method of this benchmark.
+     *
+     * @param args
+     *            optionally {@code write} to replace the baseline results.
+     * @throws Exception
+     *             if any errors occur while running the benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        new MessageOpcodeLoader().load();
+        new MessageSizeLoader().load();
+        new CodecBenchmark().run(args.length > 0 && args[0].equals("write"));
+    }
+
+    /**
+     * Checks the bit writers against each other, then measures every
+     * benchmark, prints the results next to the baseline and optionally
+     * replaces the baseline with them.
+     *
+     * @param write
+     *            if the baseline should be replaced.
+     * @throws IOException
+     *             if any errors occur while reading or writing the baseline.
+     */
+    private void run(boolean write) throws IOException {
+        compareBits();
+        Map<String, Double> baseline = readBaseline();
+        Map<String, Double> results = new LinkedHashMap<>();
+        StringBuilder sb = new StringBuilder(System.lineSeparator());
+        sb.append(String.format("%-52s %12s %10s %12s %8s%n", "Benchmark", "Score", "Error", "Baseline", "Change"));
+        for (Map.Entry<String, LongSupplier> benchmark : benchmarks.entrySet()) {
+            double[] score = measure(benchmark.getValue());
+            Double previous = baseline.get(benchmark.getKey());
+            results.put(benchmark.getKey(), score[0]);
+            sb.append(String.format("%-52s %12.3f %10.3f %12s %8s%n", benchmark.getKey(), score[0], score[1],
+                previous == null ? "-" : String.format("%.3f", previous), previous == null ? "-" : String.format("%+.1f%%",
+                    (score[0] - previous) / previous * 100)));
+        }
+        sb.append("Scores are in nanoseconds per operation, lower is better.");
+        logger.info(sb.toString());
+        if (write) {
+            writeBaseline(results);
+            logger.info("The baseline has been written to " + BASELINE + ".");
+        }
+    }
+
+    /**
+     * Warms up and then measures {@code benchmark}.
+     *
+     * @param benchmark
+     *            the benchmark to measure.
+     * @return the average time per operation in nanoseconds, and the error at
+     *         a {@code 99.9%} confidence interval.
+     */
+    private static double[] measure(LongSupplier benchmark) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            iteration(benchmark);
+        double[] scores = new double[MEASURED_ITERATIONS];
+        double mean = 0;
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = iteration(benchmark);
+            mean += scores[i] / scores.length;
+        }
+        double variance = 0;
+        for (double score : scores)
+            variance += (score - mean) * (score - mean) / (scores.length - 1);
+        return new double[] { mean, 3.29 * Math.sqrt(variance / scores.length) };
+    }
+
+    /**
+     * Executes {@code benchmark} repeatedly for a single iteration.
+     *
+     * @param benchmark
+     *            the benchmark to execute.
+     * @return the average time per operation in nanoseconds.
+     */
+    private static double iteration(LongSupplier benchmark) {
+        long operations = 0;
+        long result = 0;
+        long start = System.nanoTime();
+        long end = start + ITERATION_TIME * 1_000_000;
+        long now;
+        do {
+            for (int i = 0; i < BATCH; i++)
+                result += benchmark.getAsLong();
+            operations += BATCH;
+        } while ((now = System.nanoTime()) < end);
+        sink += result;
+        return (double) (now - start) / operations;
+    }
+
+    /**
+     * Writes a player movement sized run of bits.
+     *
+     * @return the writer index of the builder.
+     */
+    private long putBits() {
+        builder.clear();
+        builder.startBitAccess();
+        builder.putBits(11, 2047);
+        builder.putBits(5, 31);
+        builder.putBits(5, 17);
+        builder.putBit(true);
+        builder.putBits(3, 5);
+        builder.putBits(1, 0);
+        builder.endBitAccess();
+        return builder.buffer().writerIndex();
+    }
+
+    /**
+     * Writes the same run of bits as {@link #putBits()} with the
+     * {@link LegacyBitWriter}.
+     *
+     * @return the writer index of the writer.
+     */
+    private long putLegacyBits() {
+        legacy.buffer().clear();
+        legacy.startBitAccess();
+        legacy.putBits(11, 2047);
+        legacy.putBits(5, 31);
+        legacy.putBits(5, 17);
+        legacy.putBit(true);
+        legacy.putBits(3, 5);
+        legacy.putBits(1, 0);
+        legacy.endBitAccess();
+        return legacy.buffer().writerIndex();
+    }
+
+    /**
+     * Writes random sequences of bits with both the {@link MessageBuilder} and
+     * the {@link LegacyBitWriter}, surrounded by random bytes, and checks that
+     * both produce the same bytes.
+     *
+     * @throws IllegalStateException
+     *             if the writers produce different bytes for any sequence.
+     */
+    private void compareBits() {
+        Random random = new Random(317);
+        for (int sequence = 0; sequence < BIT_SEQUENCES; sequence++) {
+            MessageBuilder current = MessageBuilder.create(512);
+            LegacyBitWriter reference = new LegacyBitWriter(Unpooled.buffer(512));
+            int prefix = random.nextInt(8);
+            for (int i = 0; i < prefix; i++) {
+                int value = random.nextInt(256);
+                current.put(value);
+                reference.buffer().writeByte(value);
+            }
+            current.startBitAccess();
+            reference.startBitAccess();
+            int writes = 1 + random.nextInt(64);
+            for (int i = 0; i < writes; i++) {
+                int amount = 1 + random.nextInt(32);
+                int value = random.nextInt();
+                current.putBits(amount, value);
+                reference.putBits(amount, value);
+            }
+            current.endBitAccess();
+            reference.endBitAccess();
+            int suffix = random.nextInt(4);
+            for (int i = 0; i < suffix; i++) {
+                int value = random.nextInt(256);
+                current.put(value);
+                reference.buffer().writeByte(value);
+            }
+            if (!current.buffer().equals(reference.buffer()))
+                throw new IllegalStateException("The bit writers wrote different bytes for sequence " + sequence + ".");
+            current.release();
+        }
+        logger.info("The bit writers wrote the same bytes for " + BIT_SEQUENCES + " random sequences.");
+    }
+
+    /**
+     * Writes a {@code short} value with {@code type} and {@code order}.
+     *
+     * @param type
+     *            the value type to write with.
+     * @param order
+     *            the byte order to write with.
+     * @return the writer index of the builder.
+     */
+    private long putShort(ValueType type, ByteOrder order) {
+        builder.clear();
+        builder.putShort(3222, type, order);
+        return builder.buffer().writerIndex();
+    }
+
+    /**
+     * Writes an array of random bytes.
+     *
+     * @return the writer index of the builder.
+     */
+    private long putBytes() {
+        builder.clear();
+        builder.putBytes(bytes, bytes.length);
+        return builder.buffer().writerIndex();
+    }
+
+    /**
+     * Encodes a small fixed size message through the {@link MessageEncoder}.
+     *
+     * @return the size of the encoded message.
+     */
+    private long encode() {
+        MessageBuilder msg = MessageBuilder.create(8);
+        msg.newMessage(174);
+        msg.putShort(3222);
+        msg.put(0);
+        msg.putShort(0);
+        encoder.writeOutbound(msg);
+        ByteBuf buf = (ByteBuf) encoder.readOutbound();
+        int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+
+    /**
+     * Decodes the recorded packet stream through a fresh
+     * {@link MessageDecoder}, split into segments the way it would arrive
+     * from a socket.
+     *
+     * @return the amount of decoded messages.
+     */
+    private long decode() {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder(new ISAACCipher(SEED.clone())));
+        long messages = 0;
+        for (int index = 0; index < stream.writerIndex(); index += SEGMENT_SIZE) {
+            channel.writeInbound(stream.slice(index, Math.min(SEGMENT_SIZE, stream.writerIndex() - index)).retain());
+            Object msg;
+            while ((msg = channel.readInbound()) != null) {
+                ((InputMessage) msg).release();
+                messages++;
+            }
+        }
+        channel.finish();
+        return messages;
+    }
+
+    /**
+     * Records a packet stream with the same mix of walking, chatting and
+     * clicking that {@link Bot}s send, padded with the idle, camera and mouse
+     * messages a real client sends every few cycles.
+     *
+     * @return the recorded packet stream.
+     */
+    private ByteBuf record() {
+        ISAACCipher encryptor = new ISAACCipher(SEED.clone());
+        int[] opcodes = { 164, 4, 185, 72, 202, 86, 241, 0 };
+        ByteBuf stream = Unpooled.buffer();
+        for (int i = 0; i < STREAM_MESSAGES; i++) {
+            int opcode = opcodes[random.nextInt(opcodes.length)];
+            int size = NetworkConstants.MESSAGE_SIZES[opcode];
+            int length = size >= 0 ? size : 5 + random.nextInt(10) * 2;
+            stream.writeByte(opcode + encryptor.getKey());
+            if (size == NetworkConstants.VAR_SIZE) {
+                stream.writeByte(length);
+            } else if (size == NetworkConstants.VAR_SIZE_SHORT) {
+                stream.writeShort(length);
+            }
+            for (int j = 0; j < length; j++)
+                stream.writeByte(random.nextInt(256));
+        }
+        return stream;
+    }
+
+    /**
+     * Reads the baseline results, if there are any.
+     *
+     * @return the baseline results, by benchmark name.
+     * @throws IOException
+     *             if any errors occur while reading the baseline.
+     */
+    private static Map<String, Double> readBaseline() throws IOException {
+        Map<String, Double> baseline = new LinkedHashMap<>();
+        if (!Files.exists(BASELINE))
+            return baseline;
+        List<String> lines = Files.readAllLines(BASELINE, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            int split = line.lastIndexOf('=');
+            baseline.put(line.substring(0, split).trim(), Double.parseDouble(line.substring(split + 1).trim()));
+        }
+        return baseline;
+    }
+
+    /**
+     * Replaces the baseline with {@code results}.
+     *
+     * @param results
+     *            the results to write, by benchmark name.
+     * @throws IOException
+     *             if any errors occur while writing the baseline.
+     */
+    private static void writeBaseline(Map<String, Double> results) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# The average nanoseconds per operation of every CodecBenchmark, on ");
+        sb.append(System.getProperty("os.name")).append(" with Java ").append(System.getProperty("java.version"));
+        sb.append(" and ").append(Runtime.getRuntime().availableProcessors()).append(" processors.");
+        sb.append(System.lineSeparator());
+        results.forEach((name, score) -> sb.append(name).append(" = ").append(String.format("%.3f", score)).append(
+            System.lineSeparator()));
+        Files.createDirectories(BASELINE.getParent());
+        Files.write(BASELINE, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.asteria.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import com.asteria.net.message.MessageBuilder;
+
+/**
+ * The bit writer {@link MessageBuilder} used before bits were accumulated in a
+ * {@code long}, which reads and writes back the backing buffer one byte at a
+ * time. It is kept unchanged as the reference the current writer is checked
+ * and measured against by the {@link CodecBenchmark}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ * @author blakeman8192
+ */
+final class LegacyBitWriter {
+
+    /**
+     * An array of the bit masks used for writing bits.
+     */
+    private static final int[] BIT_MASK = { 0, 0x1, 0x3, 0x7, 0xf, 0x1f, 0x3f, 0x7f, 0xff, 0x1ff, 0x3ff, 0x7ff, 0xfff, 0x1fff, 0x3fff,
+            0x7fff, 0xffff, 0x1ffff, 0x3ffff, 0x7ffff, 0xfffff, 0x1fffff, 0x3fffff, 0x7fffff, 0xffffff, 0x1ffffff, 0x3ffffff, 0x7ffffff,
+            0xfffffff, 0x1fffffff, 0x3fffffff, 0x7fffffff, -1 };
+
+    /**
+     * The backing byte buffer used to write data.
+     */
+    private ByteBuf buf;
+
+    /**
+     * The current bit position when writing bits.
+     */
+    private int bitIndex = 0;
+
+    /**
+     * Creates a new {@link LegacyBitWriter}.
+     *
+     * @param buf
+     *            the backing buffer used to write data.
+     */
+    LegacyBitWriter(ByteBuf buf) {
+        this.buf = buf;
+    }
+
+    /**
+     * Prepares the buffer for writing bits.
+     */
+    void startBitAccess() {
+        bitIndex = buf.writerIndex() * 8;
+    }
+
+    /**
+     * Prepares the buffer for writing bytes.
+     */
+    void endBitAccess() {
+        buf.writerIndex((bitIndex + 7) / 8);
+    }
+
+    /**
+     * Writes the value as a variable amount of bits.
+     *
+     * @param amount
+     *            the amount of bits to write.
+     * @param value
+     *            the value of the bits.
+     * @return an instance of this bit writer.
+     * @throws IllegalArgumentException
+     *             if the number of bits is not between {@code 1} and {@code 32}
+     *             inclusive.
+     */
+    LegacyBitWriter putBits(int amount, int value) {
+        if (amount < 0 || amount > 32)
+            throw new IllegalArgumentException("Number of bits must be " + "between 1 and 32 inclusive.");
+        int bytePos = bitIndex >> 3;
+        int bitOffset = 8 - (bitIndex & 7);
+        bitIndex = bitIndex + amount;
+        int requiredSpace = bytePos - buf.writerIndex() + 1;
+        requiredSpace += (amount + 7) / 8;
+        if (buf.writableBytes() < requiredSpace) {
+            ByteBuf old = buf;
+            buf = Unpooled.buffer(old.capacity() + requiredSpace);
+            buf.writeBytes(old);
+        }
+        for (; amount > bitOffset; bitOffset = 8) {
+            byte tmp = buf.getByte(bytePos);
+            tmp &= ~BIT_MASK[bitOffset];
+            tmp |= (value >> (amount - bitOffset)) & BIT_MASK[bitOffset];
+            buf.setByte(bytePos++, tmp);
+            amount -= bitOffset;
+        }
+        if (amount == bitOffset) {
+            byte tmp = buf.getByte(bytePos);
+            tmp &= ~BIT_MASK[bitOffset];
+            tmp |= value & BIT_MASK[bitOffset];
+            buf.setByte(bytePos, tmp);
+        } else {
+            byte tmp = buf.getByte(bytePos);
+            tmp &= ~(BIT_MASK[amount] << (bitOffset - amount));
+            tmp |= (value & BIT_MASK[amount]) << (bitOffset - amount);
+            buf.setByte(bytePos, tmp);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a boolean bit flag.
+     *
+     * @param flag
+     *            the flag to write.
+     * @return an instance of this bit writer.
+     */
+    LegacyBitWriter putBit(boolean flag) {
+        putBits(1, flag ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * Gets the backing byte buffer used to write data.
+     *
+     * @return the backing byte buffer.
+     */
+    ByteBuf buffer() {
+        return buf;
+    }
+}
@@ -0,0 +1,213 @@
+package com.asteria.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import com.asteria.task.Task;
+import com.asteria.task.TaskQueue;
+import com.asteria.utility.LoggerUtils;
+
+/**
+ * The benchmark for the cost of a single {@link TaskQueue#sequence()} with a
+ * large amount of pending tasks. Every benchmark fills a fresh task queue with
+ * repeating tasks whose delays are spread uniformly over a range, sequences it
+ * for a few revolutions of the timing wheel to reach a steady state, and then
+ * measures the average time per tick. The results are compared against the
+ * baseline results file, the same way the {@link CodecBenchmark} does.
+ * <p>
+ * <p>
+ * The benchmark is started from the server directory, optionally with
+ * {@code write} to replace the baseline with the results of the current run.
+ * For example {@code java com.asteria.benchmark.TaskQueueBenchmark write}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class TaskQueueBenchmark {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(TaskQueueBenchmark.class);
+
+    /**
+     * The path to the baseline results file.
+     */
+    private static final Path BASELINE = Paths.get("./data/benchmark/task_baseline.txt");
+
+    /**
+     * The amount of tasks pending in the task queue.
+     */
+    private static final int PENDING_TASKS = 50_000;
+
+    /**
+     * The delay ranges of the tasks, as the minimum and maximum delay in
+     * ticks.
+     */
+    private static final int[][] DELAYS = { { 100, 3000 }, { 10, 1000 }, { 1, 100 } };
+
+    /**
+     * The amount of ticks sequenced before measurements begin.
+     */
+    private static final int WARMUP_TICKS = 20_000;
+
+    /**
+     * The amount of measured iterations executed for each benchmark.
+     */
+    private static final int MEASURED_ITERATIONS = 10;
+
+    /**
+     * The amount of ticks sequenced in a single iteration.
+     */
+    private static final int ITERATION_TICKS = 600;
+
+    /**
+     * The amount of times a task has been executed, so that no task can be
+     * optimized away.
+     */
+    private static long executions;
+
+    /**
+     * The default constructor, will throw an
+     * {@link UnsupportedOperationException} if instantiated.
+     *
+     * @throws UnsupportedOperationException
+     *             if this class is instantiated.
+     */
+    private TaskQueueBenchmark() {
+        throw new UnsupportedOperationException("This class cannot be instantiated!");
+    }
+
+    /**
+     * The main method of this benchmark.
+     *
+     * @param args
+     *            optionally {@code write} to replace the baseline results.
+     * @throws Exception
+     *             if any errors occur while running the benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, Double> baseline = readBaseline();
+        Map<String, Double> results = new LinkedHashMap<>();
+        StringBuilder sb = new StringBuilder(System.lineSeparator());
+        sb.append(String.format("%-52s %12s %10s %12s %8s %10s%n", "Benchmark", "Score", "Error", "Baseline", "Change", "Runs/tick"));
+        for (int[] delay : DELAYS) {
+            String name = "TaskQueue.sequence(" + PENDING_TASKS + " tasks, " + delay[0] + "-" + delay[1] + " ticks)";
+            TaskQueue queue = create(delay[0], delay[1]);
+            for (int i = 0; i < WARMUP_TICKS; i++)
+                queue.sequence();
+            long before = executions;
+            double[] score = measure(queue);
+            double runs = (double) (executions - before) / (MEASURED_ITERATIONS * ITERATION_TICKS);
+            Double previous = baseline.get(name);
+            results.put(name, score[0]);
+            sb.append(String.format("%-52s %12.3f %10.3f %12s %8s %10.1f%n", name, score[0], score[1], previous == null ? "-"
+                : String.format("%.3f", previous), previous == null ? "-" : String.format("%+.1f%%", (score[0] - previous)
+                / previous * 100), runs));
+        }
+        sb.append("Scores are in microseconds per tick, lower is better.");
+        logger.info(sb.toString());
+        if (args.length > 0 && args[0].equals("write")) {
+            writeBaseline(results);
+            logger.info("The baseline has been written to " + BASELINE + ".");
+        }
+    }
+
+    /**
+     * Creates a task queue filled with repeating tasks, with delays spread
+     * uniformly from {@code minimum} to {@code maximum} ticks.
+     *
+     * @param minimum
+     *            the minimum delay of a task.
+     * @param maximum
+     *            the maximum delay of a task.
+     * @return the filled task queue.
+     */
+    private static TaskQueue create(int minimum, int maximum) {
+        TaskQueue queue = new TaskQueue();
+        Random random = new Random(317);
+        for (int i = 0; i < PENDING_TASKS; i++) {
+            queue.submit(new Task(minimum + random.nextInt(maximum - minimum + 1), false) {
+                @Override
+                public void execute() {
+                    executions++;
+                }
+            });
+        }
+        return queue;
+    }
+
+    /**
+     * Measures the average time per tick of {@code queue}.
+     *
+     * @param queue
+     *            the task queue to measure.
+     * @return the average time per tick in microseconds, and the error at a
+     *         {@code 99.9%} confidence interval.
+     * @throws Exception
+     *             if any errors occur while sequencing the task queue.
+     */
+    private static double[] measure(TaskQueue queue) throws Exception {
+        double[] scores = new double[MEASURED_ITERATIONS];
+        double mean = 0;
+        for (int i = 0; i < scores.length; i++) {
+            long start = System.nanoTime();
+            for (int tick = 0; tick < ITERATION_TICKS; tick++)
+                queue.sequence();
+            scores[i] = (System.nanoTime() - start) / 1000.0 / ITERATION_TICKS;
+            mean += scores[i] / scores.length;
+        }
+        double variance = 0;
+        for (double score : scores)
+            variance += (score - mean) * (score - mean) / (scores.length - 1);
+        return new double[] { mean, 3.29 * Math.sqrt(variance / scores.length) };
+    }
+
+    /**
+     * Reads the baseline results, if there are any.
+     *
+     * @return the baseline results, by benchmark name.
+     * @throws IOException
+     *             if any errors occur while reading the baseline.
+     */
+    private static Map<String, Double> readBaseline() throws IOException {
+        Map<String, Double> baseline = new LinkedHashMap<>();
+        if (!Files.exists(BASELINE))
+            return baseline;
+        List<String> lines = Files.readAllLines(BASELINE, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            int split = line.lastIndexOf('=');
+            baseline.put(line.substring(0, split).trim(), Double.parseDouble(line.substring(split + 1).trim()));
+        }
+        return baseline;
+    }
+
+    /**
+     * Replaces the baseline with {@code results}.
+     *
+     * @param results
+     *            the results to write, by benchmark name.
+     * @throws IOException
+     *             if any errors occur while writing the baseline.
+     */
+    private static void writeBaseline(Map<String, Double> results) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# The average microseconds per tick of every TaskQueueBenchmark, on ");
+        sb.append(System.getProperty("os.name")).append(" with Java ").append(System.getProperty("java.version"));
+        sb.append(" and ").append(Runtime.getRuntime().availableProcessors()).append(" processors.");
+        sb.append(System.lineSeparator());
+        results.forEach((name, score) -> sb.append(name).append(" = ").append(String.format("%.3f", score)).append(
+            System.lineSeparator()));
+        Files.createDirectories(BASELINE.getParent());
+        Files.write(BASELINE, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
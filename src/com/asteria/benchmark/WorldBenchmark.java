@@ -0,0 +1,268 @@
+package com.asteria.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.asteria.game.GameBuilder;
+import com.asteria.game.GameConstants;
+import com.asteria.game.World;
+import com.asteria.game.character.Flag;
+import com.asteria.game.character.npc.Npc;
+import com.asteria.game.character.player.IOState;
+import com.asteria.game.character.player.Player;
+import com.asteria.game.character.player.skill.Skills;
+import com.asteria.game.location.Position;
+import com.asteria.game.profile.TickPhase;
+import com.asteria.net.ISAACCipher;
+import com.asteria.net.PlayerIO;
+import com.asteria.net.codec.MessageEncoder;
+import com.asteria.utility.LoggerUtils;
+import com.asteria.utility.TextUtils;
+
+/**
+ * The offline benchmark that measures the cost of {@link World#sequence()}
+ * without any sockets or real clients. Game data is loaded the same way the
+ * {@link GameBuilder} does, after which fake players backed by in-memory
+ * channels are logged in and scripted to walk, fight and chat while the world
+ * is sequenced in a tight loop.
+ * <p>
+ * <p>
+ * The benchmark is started with the amount of players, and optionally the
+ * amount of measured sequences and the radius in tiles the players are spread
+ * over around the starting position. For example
+ * {@code java com.asteria.benchmark.WorldBenchmark 1000 500 32}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class WorldBenchmark {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(WorldBenchmark.class);
+
+    /**
+     * The amount of sequences executed after every player has logged in,
+     * before measurements begin.
+     */
+    private static final int WARMUP = 100;
+
+    /**
+     * The identifier of the NPCs that players will fight.
+     */
+    private static final int DUMMY_ID = 1;
+
+    /**
+     * The amount of players for every dummy NPC that is spawned.
+     */
+    private static final int PLAYERS_PER_DUMMY = 10;
+
+    /**
+     * The random generator used to script players, seeded so that runs are
+     * repeatable.
+     */
+    private final Random random = new Random(317);
+
+    /**
+     * The channels backing every fake player.
+     */
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+
+    /**
+     * The dummy NPCs that players will fight.
+     */
+    private final List<Npc> dummies = new ArrayList<>();
+
+    /**
+     * The amount of fake players.
+     */
+    private final int amount;
+
+    /**
+     * The amount of measured sequences.
+     */
+    private final int sequences;
+
+    /**
+     * The radius in tiles players are spread over.
+     */
+    private final int radius;
+
+    /**
+     * Creates a new {@link WorldBenchmark}.
+     *
+     * @param amount
+     *            the amount of fake players.
+     * @param sequences
+     *            the amount of measured sequences.
+     * @param radius
+     *            the radius in tiles players are spread over.
+     */
+    private WorldBenchmark(int amount, int sequences, int radius) {
+        this.amount = amount;
+        this.sequences = sequences;
+        this.radius = radius;
+    }
+
+    /**
+     * The main method of this benchmark.
+     *
+     * @param args
+     *            the amount of players, and optionally the amount of measured
+     *            sequences and the radius players are spread over.
+     * @throws Exception
+     *             if any errors occur while running the benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            logger.info("Usage: WorldBenchmark <players> [sequences] [radius]");
+            return;
+        }
+        int amount = Integer.parseInt(args[0]);
+        int sequences = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int radius = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        new GameBuilder().load();
+        new WorldBenchmark(amount, sequences, radius).run();
+        System.exit(0);
+    }
+
+    /**
+     * Spawns the players and dummies, warms the world up and then measures
+     * the configured amount of sequences.
+     *
+     * @throws Exception
+     *             if any errors occur while sequencing the world.
+     */
+    private void run() throws Exception {
+        for (int i = 0; i < amount / PLAYERS_PER_DUMMY + 1; i++) {
+            Npc npc = new Npc(DUMMY_ID, randomPosition());
+            npc.setCurrentHealth(100000);
+            npc.setAutoRetaliate(false);
+            World.getNpcs().add(npc);
+            dummies.add(npc);
+        }
+        for (int i = 0; i < amount; i++)
+            login(i);
+
+        logger.info("Logging in " + amount + " players...");
+        while (World.getPlayers().size() < amount) {
+            World.sequence();
+            drain();
+        }
+        for (int i = 0; i < WARMUP; i++)
+            sequence();
+
+        World.getProfiler().reset();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < sequences; i++)
+            bytes += sequence();
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        logger.info(String.format("%d players, %d sequences in %.2fs: %.1f sequences/sec, %.2fms average", amount, sequences,
+            seconds, sequences / seconds, TimeUnit.NANOSECONDS.toMicros(elapsed) / 1000.0 / sequences));
+        logger.info(String.format("%.1f bytes per player per sequence", (double) bytes / amount / sequences));
+        for (TickPhase phase : TickPhase.values()) {
+            long[] times = World.getProfiler().getPercentiles(phase);
+            logger.info(String.format("%s: p50= %.3fms, p99= %.3fms, max= %.3fms", phase, times[0] / 1e6, times[1] / 1e6,
+                times[2] / 1e6));
+        }
+    }
+
+    /**
+     * Creates a fake player backed by an in-memory channel and queues it for
+     * login.
+     *
+     * @param index
+     *            the index of the player.
+     */
+    private void login(int index) {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageEncoder(new ISAACCipher(new int[] { index, index, index,
+            index })));
+        PlayerIO session = new PlayerIO(channel, "127.0.0.1");
+        Player player = session.getPlayer();
+        String username = "bench" + index;
+        player.setUsername(username);
+        player.setUsernameHash(TextUtils.nameToHash(username));
+        player.setPassword("bench");
+        player.setPosition(randomPosition());
+        Skills.create(player);
+        session.setState(IOState.LOGGING_IN);
+        channels.add(channel);
+        World.queueLogin(player);
+    }
+
+    /**
+     * Scripts the players, executes a single sequence and drains the output.
+     *
+     * @return the amount of bytes produced during the sequence.
+     * @throws Exception
+     *             if any errors occur while sequencing the world.
+     */
+    private long sequence() throws Exception {
+        World.getPlayers().forEach(this::script);
+        World.sequence();
+        return drain();
+    }
+
+    /**
+     * Randomly makes {@code player} walk, chat or attack a dummy, the same way
+     * the respective incoming messages would.
+     *
+     * @param player
+     *            the player to script.
+     */
+    private void script(Player player) {
+        int action = random.nextInt(100);
+        if (action < 20) {
+            player.getMovementQueue().walk(random.nextInt(21) - 10, random.nextInt(21) - 10);
+        } else if (action < 22) {
+            byte[] text = new byte[12];
+            random.nextBytes(text);
+            player.setChatEffects(0);
+            player.setChatColor(0);
+            player.setChatText(text);
+            player.getFlags().set(Flag.CHAT);
+        } else if (action < 23) {
+            Npc npc = dummies.get(random.nextInt(dummies.size()));
+            if (npc.getPosition().withinDistance(player.getPosition(), 15))
+                player.getCombatBuilder().attack(npc);
+        }
+    }
+
+    /**
+     * Releases everything written to the fake channels.
+     *
+     * @return the amount of bytes that were written.
+     */
+    private long drain() {
+        long bytes = 0;
+        for (EmbeddedChannel channel : channels) {
+            Object msg;
+            while ((msg = channel.readOutbound()) != null) {
+                ByteBuf buf = (ByteBuf) msg;
+                bytes += buf.readableBytes();
+                buf.release();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Generates a random position within the radius of the starting position.
+     *
+     * @return the generated position.
+     */
+    private Position randomPosition() {
+        Position start = GameConstants.STARTING_POSITION;
+        return new Position(start.getX() + random.nextInt(radius * 2 + 1) - radius, start.getY() + random.nextInt(radius * 2 + 1)
+            - radius);
+    }
+}
@@ -0,0 +1,29 @@
+package com.asteria.game;
+
+/**
+ * The enumerated type whose elements represent the ways the
+ * {@link GameService} can recover after a sequence takes longer than
+ * {@link GameConstants#CYCLE_RATE} to complete.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public enum CatchUpPolicy {
+
+    /**
+     * Every missed sequence is executed back-to-back until the game clock has
+     * caught up, so no sequences are ever lost.
+     */
+    BURST,
+
+    /**
+     * Missed sequences are dropped, and the next sequence is executed on the
+     * next cycle boundary of the original schedule.
+     */
+    SKIP,
+
+    /**
+     * The late sequence stretches the current cycle, the next sequence is
+     * executed right away and the schedule continues on from there.
+     */
+    STRETCH
+}
@@ -9,7 +9,6 @@ import com.asteria.game.character.player.minigame.MinigameHandler;
 import com.asteria.game.character.player.serialize.PlayerSerialization;
 import com.asteria.game.item.ItemNodeManager;
 import com.asteria.net.ConnectionHandler;
-import com.asteria.service.ServiceQueue;
 import com.asteria.utility.BackgroundLoader;
 import com.asteria.utility.json.EquipmentRequirementLoader;
 import com.asteria.utility.json.ItemDefinitionLoader;
@@ -41,11 +40,6 @@ public final class GameBuilder {
      */
     private final BackgroundLoader backgroundLoader = new BackgroundLoader();
 
-    /**
-     * The service queue that will run the {@link GameService}.
-     */
-    private final ServiceQueue queue = new ServiceQueue();
-
     /**
      * Initializes this game builder effectively preparing the background
      * startup tasks and game processing.
@@ -54,12 +48,28 @@ public final class GameBuilder {
      *             if any issues occur while starting the network.
      */
     public void initialize() throws Exception {
+        load();
+        World.getService().start();
+        World.getProfiler().register();
+        PlayerSerialization.getWriter().register();
+    }
+
+    /**
+     * Loads all of the game data and submits the startup tasks, without
+     * starting game processing. The world can then be sequenced manually.
+     *
+     * @throws Exception
+     *             if any issues occur while loading the game data.
+     */
+    public void load() throws Exception {
         backgroundLoader.start(createBackgroundTasks());
-        queue.submit(World.getService());
         World.submit(new ItemNodeManager());
         World.submit(new RestoreStatTask());
         World.submit(new MinigameHandler());
         PlayerSerialization.getCache().init();
+        if (GameConstants.PLAYER_STORE)
+            PlayerSerialization.getStore().open();
+        PlayerSerialization.getWriter().start();
         if (!backgroundLoader.awaitCompletion())
             throw new IllegalStateException("Background load did not complete normally!");
     }
@@ -3,6 +3,9 @@ package com.asteria.game;
 import com.asteria.game.character.npc.Npc;
 import com.asteria.game.character.player.Player;
 import com.asteria.game.character.player.serialize.PlayerSerializationCache;
+import com.asteria.game.character.player.serialize.PlayerSerializationFormat;
+import com.asteria.game.character.player.serialize.PlayerSerializationMigration;
+import com.asteria.game.character.player.serialize.PlayerStore;
 import com.asteria.game.item.Item;
 import com.asteria.game.location.Location;
 import com.asteria.game.location.Position;
@@ -41,6 +44,28 @@ public final class GameConstants {
      */
     public static final int CYCLE_RATE = 600;
 
+    /**
+     * The format character files are written in. Character files in any other
+     * format are still read, but are left in place until they are converted
+     * with the {@link PlayerSerializationMigration} tool.
+     */
+    public static final PlayerSerializationFormat SERIALIZATION_FORMAT = PlayerSerializationFormat.JSON;
+
+    /**
+     * The flag that determines if character files are kept in the single file
+     * {@link PlayerStore}, rather than in a file per account. Accounts that
+     * are not in the store yet are still read from their own character file,
+     * which is left in place until it is imported with the
+     * {@link PlayerSerializationMigration} tool.
+     */
+    public static final boolean PLAYER_STORE = false;
+
+    /**
+     * The policy the {@link GameService} uses to catch up after a sequence
+     * takes longer than {@code CYCLE_RATE} to execute.
+     */
+    public static final CatchUpPolicy CATCH_UP_POLICY = CatchUpPolicy.BURST;
+
     /**
      * How long the player will stay logged in for after they have x-logged
      * during combat.
@@ -1,20 +1,32 @@
 package com.asteria.game;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.asteria.game.character.player.serialize.PlayerSerialization;
 import com.asteria.service.Service;
 import com.asteria.service.ServiceQueue;
 import com.asteria.utility.LoggerUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
- * The {@link Service} implementation that synchronizes game logic periodically
- * at strict intervals. This service is responsible for virtually running the
+ * The game loop that synchronizes game logic periodically at strict intervals
+ * on a dedicated thread. This service is responsible for virtually running the
  * entire game.
+ * <p>
+ * <p>
+ * Sequences are scheduled against a fixed clock of
+ * {@link GameConstants#CYCLE_RATE} intervals, so that the time taken by each
+ * sequence does not cause the schedule to drift. When a sequence overruns its
+ * cycle the overrun is recorded, and the game clock recovers as determined by
+ * {@link GameConstants#CATCH_UP_POLICY}.
  *
  * @author lare96 <http://github.com/lare96>
  */
-public final class GameService extends Service {
+public final class GameService implements Runnable {
 
     /**
      * The logger that will print important information.
@@ -27,29 +39,136 @@ public final class GameService extends Service {
     private final ServiceQueue serviceQueue = new ServiceQueue(GameConstants.THREAD_TIMEOUT);
 
     /**
-     * Creates a new {@link GameService} with a execution rate of
-     * {@code CYCLE_RATE}.
+     * The length of a single cycle in nanoseconds.
      */
-    public GameService() {
-        super(GameConstants.CYCLE_RATE);
+    private final long period = TimeUnit.MILLISECONDS.toNanos(GameConstants.CYCLE_RATE);
+
+    /**
+     * The thread that runs the game loop, or {@code null} if it has not been
+     * started yet.
+     */
+    private Thread thread;
+
+    /**
+     * The amount of sequences that have been executed.
+     */
+    private volatile long sequences;
+
+    /**
+     * The amount of sequences that have overrun their cycle.
+     */
+    private volatile long overruns;
+
+    /**
+     * The amount of sequences that have been skipped.
+     */
+    private volatile long skipped;
+
+    /**
+     * The longest amount of time in nanoseconds a sequence has overrun its
+     * cycle by.
+     */
+    private volatile long maxOverrun;
+
+    /**
+     * Starts the game loop on a new dedicated thread.
+     *
+     * @throws IllegalStateException
+     *             if the game loop has already been started.
+     */
+    public void start() {
+        Preconditions.checkState(thread == null, "The game service has already been started.");
+        thread = new ThreadFactoryBuilder().setNameFormat("GameThread").build().newThread(this);
+        thread.start();
     }
 
     /**
      * {@inheritDoc}
      * <p>
      * <p>
-     * This method should <b>never</b> be invoked unless by the underlying
-     * {@linkplain ServiceQueue service queue context}. Illegal invocation of
-     * this method will lead to serious gameplay timing issues as well as other
+     * This method should <b>never</b> be invoked unless by the game thread
+     * created in {@link GameService#start()}. Illegal invocation of this
+     * method will lead to serious gameplay timing issues as well as other
      * unexplainable and unpredictable issues related to gameplay.
      */
     @Override
-    public void execute(ServiceQueue context) {
+    public void run() {
+        long next = System.nanoTime() + period;
+        while (!Thread.currentThread().isInterrupted()) {
+            long remaining = next - System.nanoTime();
+            if (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+                continue;
+            }
+            long start = System.nanoTime();
+            sequence();
+            long end = System.nanoTime();
+            next += period;
+
+            // Record the sequence if it took longer than a cycle, then
+            // determine if the game clock is now behind and recover according
+            // to the catch-up policy if so.
+            if (end - start > period)
+                overrun(end - start);
+            long behind = end - next;
+            if (behind > 0)
+                next = recover(next, behind);
+        }
+    }
+
+    /**
+     * Executes a single game sequence.
+     */
+    private void sequence() {
         try {
             World.sequence();
         } catch (Throwable t) {
             logger.log(Level.SEVERE, "An error has occured during the main game sequence!", t);
             World.getPlayers().forEach(player -> player.save());
+            PlayerSerialization.getWriter().snapshot();
+        } finally {
+            sequences++;
+        }
+    }
+
+    /**
+     * Records a sequence that took longer than a single cycle to execute.
+     *
+     * @param duration
+     *            the amount of nanoseconds the sequence took.
+     */
+    private void overrun(long duration) {
+        long overrun = duration - period;
+        overruns++;
+        maxOverrun = Math.max(maxOverrun, overrun);
+        logger.warning("Game sequence took " + TimeUnit.NANOSECONDS.toMillis(duration) + "ms, overrunning its cycle by "
+            + TimeUnit.NANOSECONDS.toMillis(overrun) + "ms!");
+    }
+
+    /**
+     * Determines when the next sequence should be executed after the game
+     * clock has fallen behind, based on the catch-up policy.
+     *
+     * @param next
+     *            the time in nanoseconds the next sequence was due.
+     * @param behind
+     *            the amount of nanoseconds the game clock is behind by.
+     * @return the time in nanoseconds the next sequence should be executed.
+     */
+    private long recover(long next, long behind) {
+        switch (GameConstants.CATCH_UP_POLICY) {
+        case BURST:
+            return next;
+        case SKIP:
+            long missed = behind / period + 1;
+            skipped += missed;
+            logger.warning("The game clock is " + TimeUnit.NANOSECONDS.toMillis(behind) + "ms behind, skipping " + missed
+                + " sequence(s).");
+            return next + missed * period;
+        case STRETCH:
+            return next + behind;
+        default:
+            throw new IllegalStateException("Unknown catch-up policy " + GameConstants.CATCH_UP_POLICY);
         }
     }
 
@@ -83,4 +202,41 @@ public final class GameService extends Service {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the amount of sequences that have been executed.
+     *
+     * @return the amount of sequences.
+     */
+    public long getSequences() {
+        return sequences;
+    }
+
+    /**
+     * Gets the amount of sequences that have overrun their cycle.
+     *
+     * @return the amount of overruns.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Gets the amount of sequences that have been skipped.
+     *
+     * @return the amount of skipped sequences.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Gets the longest amount of time in nanoseconds a sequence has overrun
+     * its cycle by.
+     *
+     * @return the longest overrun.
+     */
+    public long getMaxOverrun() {
+        return maxOverrun;
+    }
+}
@@ -0,0 +1,165 @@
+package com.asteria.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.asteria.game.character.CharacterNode;
+import com.asteria.game.location.Position;
+
+/**
+ * A spatial index that groups registered characters into {@code 8x8} region
+ * cells keyed on {@link Position#getRegionX()}, {@link Position#getRegionY()}
+ * and the height level. This allows nearby characters to be found by only
+ * checking a handful of cells rather than every single slot in a
+ * {@link com.asteria.game.character.CharacterList}.
+ * <p>
+ * <p>
+ * This index must only be modified from the game thread, during the sequential
+ * stages of a game cycle. It may safely be queried concurrently while no
+ * modifications are taking place, such as during the updating stage.
+ *
+ * @author lare96 <http://github.com/lare96>
+ * @param <E>
+ *            the type of character being indexed.
+ */
+public final class RegionIndex<E extends CharacterNode> {
+
+    /**
+     * The maximum distance in tiles a character can be from another character
+     * while still being viewable by them.
+     */
+    private static final int VIEWING_DISTANCE = 15;
+
+    /**
+     * The map of region cells, keyed on their packed coordinates.
+     */
+    private final Map<Integer, Set<E>> regions = new HashMap<>();
+
+    /**
+     * The map of characters to the key of the region cell they are currently
+     * indexed under.
+     */
+    private final Map<E, Integer> keys = new IdentityHashMap<>();
+
+    /**
+     * Updates the region cell {@code character} is indexed under based on its
+     * current position. If the character is no longer registered it is removed
+     * from this index, and if it was not previously indexed it is added. This
+     * should be invoked whenever the position or registration of a character
+     * changes.
+     *
+     * @param character
+     *            the character to update the region cell of.
+     */
+    public void update(E character) {
+        Integer current = keys.get(character);
+        if (!character.isRegistered()) {
+            if (current != null)
+                remove(character, current);
+            return;
+        }
+        Position position = character.getPosition();
+        int key = key(position.getRegionX(), position.getRegionY(), position.getZ());
+        if (current != null) {
+            if (current == key)
+                return;
+            remove(character, current);
+        }
+        regions.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(character);
+        keys.put(character, key);
+    }
+
+    /**
+     * Retrieves every indexed character that is viewable from
+     * {@code position}, as determined by {@link Position#isViewableFrom}.
+     *
+     * @param position
+     *            the position to retrieve viewable characters for.
+     * @return the list of viewable characters.
+     */
+    public List<E> getViewable(Position position) {
+        return collect(position, VIEWING_DISTANCE, c -> c.getPosition().isViewableFrom(position));
+    }
+
+    /**
+     * Retrieves every indexed character that is within {@code radius} tiles of
+     * {@code position}, as determined by {@link Position#withinDistance}.
+     *
+     * @param position
+     *            the position at the center of the search.
+     * @param radius
+     *            the radius in tiles of the search.
+     * @return the list of characters within the radius.
+     */
+    public List<E> getWithin(Position position, int radius) {
+        return collect(position, radius, c -> c.getPosition().withinDistance(position, radius));
+    }
+
+    /**
+     * Collects every indexed character in the region cells that surround
+     * {@code position} by {@code radius} tiles and match {@code filter}.
+     *
+     * @param position
+     *            the position at the center of the search.
+     * @param radius
+     *            the radius in tiles of the search.
+     * @param filter
+     *            the filter that characters must pass to be collected.
+     * @return the list of collected characters.
+     */
+    private List<E> collect(Position position, int radius, Predicate<? super E> filter) {
+        List<E> characters = new ArrayList<>();
+        int minX = new Position(position.getX() - radius, 0).getRegionX();
+        int maxX = new Position(position.getX() + radius, 0).getRegionX();
+        int minY = new Position(0, position.getY() - radius).getRegionY();
+        int maxY = new Position(0, position.getY() + radius).getRegionY();
+        for (int regionX = minX; regionX <= maxX; regionX++) {
+            for (int regionY = minY; regionY <= maxY; regionY++) {
+                Set<E> region = regions.get(key(regionX, regionY, position.getZ()));
+                if (region == null)
+                    continue;
+                for (E character : region) {
+                    if (filter.test(character))
+                        characters.add(character);
+                }
+            }
+        }
+        return characters;
+    }
+
+    /**
+     * Removes {@code character} from the region cell keyed on {@code key}.
+     *
+     * @param character
+     *            the character to remove.
+     * @param key
+     *            the key of the region cell the character is indexed under.
+     */
+    private void remove(E character, int key) {
+        Set<E> region = regions.get(key);
+        if (region != null && region.remove(character) && region.isEmpty())
+            regions.remove(key);
+        keys.remove(character);
+    }
+
+    /**
+     * Packs the region coordinates and height level into a single key.
+     *
+     * @param regionX
+     *            the region {@code X} coordinate.
+     * @param regionY
+     *            the region {@code Y} coordinate.
+     * @param z
+     *            the height level.
+     * @return the packed key.
+     */
+    private static int key(int regionX, int regionY, int z) {
+        return (z & 0x3) << 28 | (regionX & 0x3FFF) << 14 | (regionY & 0x3FFF);
+    }
+}
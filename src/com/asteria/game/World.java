@@ -4,9 +4,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -21,10 +23,13 @@ import com.asteria.game.character.player.IOState;
 import com.asteria.game.character.player.Player;
 import com.asteria.game.character.player.PlayerUpdating;
 import com.asteria.game.character.player.minigame.MinigameHandler;
+import com.asteria.game.character.player.serialize.PlayerSerialization;
 import com.asteria.game.item.ItemNodeManager;
 import com.asteria.game.location.Position;
 import com.asteria.game.object.ObjectNodeManager;
 import com.asteria.game.plugin.PluginHandler;
+import com.asteria.game.profile.TickPhase;
+import com.asteria.game.profile.TickProfiler;
 import com.asteria.game.shop.Shop;
 import com.asteria.game.sync.GameSyncExecutor;
 import com.asteria.game.sync.GameSyncTask;
@@ -33,6 +38,7 @@ import com.asteria.net.PlayerIO;
 import com.asteria.task.Task;
 import com.asteria.task.TaskQueue;
 import com.asteria.utility.LoggerUtils;
+import com.asteria.utility.TextUtils;
 
 /**
  * The static utility class that contains functions to manage and process game
@@ -57,6 +63,28 @@ public final class World {
      */
     private static CharacterList<Npc> npcs = new CharacterList<>(5000);
 
+    /**
+     * The spatial index of active players.
+     */
+    private static RegionIndex<Player> playerRegions = new RegionIndex<>();
+
+    /**
+     * The spatial index of active NPCs.
+     */
+    private static RegionIndex<Npc> npcRegions = new RegionIndex<>();
+
+    /**
+     * The map of active players, keyed on their username hashes. This is
+     * read by the login threads, so it must be safe for concurrent access.
+     */
+    private static Map<Long, Player> usernames = new ConcurrentHashMap<>();
+
+    /**
+     * The username hashes claimed by the login threads for players that have
+     * been sent a successful login response, but have not been logged in yet.
+     */
+    private static Set<Long> reservations = ConcurrentHashMap.newKeySet();
+
     /**
      * The game service that processes this world.
      */
@@ -87,6 +115,11 @@ public final class World {
      */
     private static GameSyncExecutor executor = new GameSyncExecutor();
 
+    /**
+     * The profiler that records the duration of each phase of the sequence.
+     */
+    private static TickProfiler profiler = new TickProfiler();
+
     /**
      * The default constructor, will throw an
      * {@link UnsupportedOperationException} if instantiated.
@@ -107,15 +140,34 @@ public final class World {
      *             if any errors occur during the update sequence.
      */
     public static void sequence() throws Exception {
+        long start = System.nanoTime();
+        long time = start;
 
         // Handle queued logins.
         for (int amount = 0; amount < GameConstants.LOGIN_THRESHOLD; amount++) {
             Player player = logins.poll();
             if (player == null)
                 break;
-            if (!players.add(player))
+
+            // The username was claimed by the login thread before the login
+            // response was sent, so it can only already be taken by a player
+            // that was queued without claiming it.
+            boolean registered = usernames.putIfAbsent(player.getUsernameHash(), player) == null;
+            releaseUsername(player.getUsernameHash());
+            if (!registered) {
+                PlayerIO session = player.getSession();
                 player.dispose();
+                session.flush();
+                session.getChannel().close();
+                ConnectionHandler.remove(session.getHost());
+                continue;
+            }
+            if (!players.add(player)) {
+                usernames.remove(player.getUsernameHash(), player);
+                player.dispose();
+            }
         }
+        time = profiler.record(TickPhase.LOGIN, time);
 
         // Handle queued logouts.
         int amount = 0;
@@ -129,9 +181,11 @@ public final class World {
                 amount++;
             }
         }
+        time = profiler.record(TickPhase.LOGOUT, time);
 
         // Handle task processing.
         taskQueue.sequence();
+        time = profiler.record(TickPhase.TASKS, time);
 
         // Handle synchronization tasks.
         executor.sync(new GameSyncTask(NodeType.PLAYER, false) {
@@ -148,6 +202,7 @@ public final class World {
                 }
             }
         });
+        time = profiler.record(TickPhase.PLAYER_LOGIC, time);
 
         executor.sync(new GameSyncTask(NodeType.NPC, false) {
             @Override
@@ -162,6 +217,38 @@ public final class World {
                 }
             }
         });
+        time = profiler.record(TickPhase.NPC_LOGIC, time);
+
+        // Handle death checks on the game thread, before any update blocks are
+        // encoded.
+        executor.sync(new GameSyncTask(NodeType.PLAYER, false) {
+            @Override
+            public void execute(int index) {
+                Player player = players.get(index);
+                try {
+                    PlayerUpdating.checkDeath(player);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    World.getPlayers().remove(player);
+                }
+            }
+        });
+
+        // Handle update block precomputation.
+        executor.sync(new GameSyncTask(NodeType.PLAYER) {
+            @Override
+            public void execute(int index) {
+                Player player = players.get(index);
+                synchronized (player) {
+                    try {
+                        PlayerUpdating.prepare(player);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                        World.getPlayers().remove(player);
+                    }
+                }
+            }
+        });
 
         executor.sync(new GameSyncTask(NodeType.PLAYER) {
             @Override
@@ -178,6 +265,7 @@ public final class World {
                 }
             }
         });
+        time = profiler.record(TickPhase.UPDATE, time);
 
         executor.sync(new GameSyncTask(NodeType.PLAYER) {
             @Override
@@ -209,6 +297,17 @@ public final class World {
                 }
             }
         });
+        time = profiler.record(TickPhase.RESET, time);
+
+        // Handle flushing of queued messages.
+        players.forEach(player -> player.getSession().flush());
+        time = profiler.record(TickPhase.FLUSH, time);
+
+        // Handle snapshotting of players that need to be saved, now that all
+        // of the logic for this sequence has been executed.
+        PlayerSerialization.getWriter().snapshot();
+        profiler.record(TickPhase.SAVE, time);
+        profiler.record(TickPhase.TOTAL, start);
     }
 
     /**
@@ -223,6 +322,37 @@ public final class World {
             logins.add(player);
     }
 
+    /**
+     * Claims {@code username} for a player that is logging in, so that no
+     * other session can log in with the same username until it is released.
+     * This is done by the login threads before the login response is sent.
+     *
+     * @param username
+     *            the name hash to claim.
+     * @return {@code true} if the username was claimed, {@code false} if it is
+     *         already online or claimed by another session.
+     */
+    public static boolean reserveUsername(long username) {
+        if (!reservations.add(username))
+            return false;
+        if (usernames.containsKey(username)) {
+            reservations.remove(username);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the claim on {@code username} made by
+     * {@link #reserveUsername(long)}.
+     *
+     * @param username
+     *            the name hash to release.
+     */
+    public static void releaseUsername(long username) {
+        reservations.remove(username);
+    }
+
     /**
      * Queues {@code player} to be logged out on the next server sequence.
      * 
@@ -258,7 +388,7 @@ public final class World {
      *         not found.
      */
     public static Optional<Player> getPlayer(long username) {
-        return players.search(player -> player.getUsernameHash() == username);
+        return Optional.ofNullable(usernames.get(username));
     }
 
     /**
@@ -273,7 +403,21 @@ public final class World {
     public static Optional<Player> getPlayer(String username) {
         if (username == null)
             return Optional.empty();
-        return players.search(player -> player.getUsername().equals(username));
+        return getPlayer(TextUtils.nameToHash(username)).filter(player -> player.getUsername().equals(username));
+    }
+
+    /**
+     * Updates the region cell {@code character} is indexed under, this should
+     * be invoked whenever the position or registration of a character changes.
+     *
+     * @param character
+     *            the character to update the region cell of.
+     */
+    public static void updateRegion(CharacterNode character) {
+        if (character.getType() == NodeType.PLAYER)
+            playerRegions.update((Player) character);
+        else if (character.getType() == NodeType.NPC)
+            npcRegions.update((Npc) character);
     }
 
     /**
@@ -288,7 +432,7 @@ public final class World {
     public static Iterator<Player> getLocalPlayers(CharacterNode character) {
         if (character.getType() == NodeType.PLAYER)
             return ((Player) character).getLocalPlayers().iterator();
-        return players.iterator();
+        return playerRegions.getViewable(character.getPosition()).iterator();
     }
 
     /**
@@ -303,7 +447,7 @@ public final class World {
     public static Iterator<Npc> getLocalNpcs(CharacterNode character) {
         if (character.getType() == NodeType.PLAYER)
             return ((Player) character).getLocalNpcs().iterator();
-        return npcs.iterator();
+        return npcRegions.getViewable(character.getPosition()).iterator();
     }
 
     /**
@@ -357,6 +501,7 @@ public final class World {
 
             // Close the channel no matter what happens, so it appears to the
             // player that they have logged out.
+            session.flush();
             session.getChannel().close();
 
             // If the player x-logged, don't log the player out. Keep the
@@ -373,6 +518,7 @@ public final class World {
             World.getTaskQueue().cancel(player);
             player.setSkillAction(false);
             World.getPlayers().remove(player);
+            usernames.remove(player.getUsernameHash(), player);
             MinigameHandler.execute(player, m -> m.onLogout(player));
             player.getTradeSession().reset(false);
             player.getPrivateMessage().updateOtherList(false);
@@ -381,6 +527,7 @@ public final class World {
             player.save();
             ConnectionHandler.remove(session.getHost());
             session.setState(IOState.LOGGED_OUT);
+            session.discardQueuedMessages();
             logger.info(session + " has logged out.");
         } catch (Exception e) {
             e.printStackTrace();
@@ -406,6 +553,24 @@ public final class World {
         return npcs;
     }
 
+    /**
+     * Gets the spatial index of active players.
+     *
+     * @return the spatial index of players.
+     */
+    public static RegionIndex<Player> getPlayerRegions() {
+        return playerRegions;
+    }
+
+    /**
+     * Gets the spatial index of active npcs.
+     *
+     * @return the spatial index of npcs.
+     */
+    public static RegionIndex<Npc> getNpcRegions() {
+        return npcRegions;
+    }
+
     /**
      * Returns the game service that processes this world.
      * 
@@ -424,6 +589,16 @@ public final class World {
         return taskQueue;
     }
 
+    /**
+     * Gets the profiler that records the duration of each phase of the
+     * sequence.
+     *
+     * @return the tick profiler.
+     */
+    public static TickProfiler getProfiler() {
+        return profiler;
+    }
+
     /**
      * Sets the value for {@link World.java#taskQueue}.
      * 
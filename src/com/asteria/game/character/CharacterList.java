@@ -3,6 +3,7 @@ package com.asteria.game.character;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
@@ -12,6 +13,7 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.asteria.game.NodeType;
 import com.asteria.game.character.player.IOState;
@@ -25,6 +27,13 @@ import com.asteria.game.character.player.Player;
  * implementations, mainly due to the fact that it uses a {@link Queue} to cache
  * available slots in order to prevent expensive lookups needed to add a new
  * character.
+ * <p>
+ * <p>
+ * The slots of every stored character are also kept packed together in a
+ * separate array, so iterating over this list only ever visits occupied slots
+ * and costs time proportional to the amount of characters rather than the
+ * capacity. Removing a character moves the last packed slot into its place,
+ * which means iteration follows insertion order until characters are removed.
  *
  * @author lare96 <http://github.com/lare96>
  * @param <E>
@@ -37,6 +46,18 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
      */
     private E[] characters;
 
+    /**
+     * The packed array of slots that are occupied by characters, only the
+     * first {@link CharacterList#size} of which are valid.
+     */
+    private final int[] active;
+
+    /**
+     * The array of positions within {@link CharacterList#active} that every
+     * occupied slot is stored at.
+     */
+    private final int[] positions;
+
     /**
      * The queue containing all of the cached slots that can be assigned to
      * {@link CharacterNode}s to prevent expensive lookups.
@@ -63,8 +84,10 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
     public CharacterList(int capacity) {
         this.capacity = ++capacity;
         this.characters = (E[]) new CharacterNode[capacity];
+        this.active = new int[capacity];
+        this.positions = new int[capacity];
         this.size = 0;
-        IntStream.rangeClosed(1, capacity).forEach(slotQueue::add);
+        IntStream.range(1, capacity).forEach(slotQueue::add);
     }
 
     /**
@@ -83,6 +106,8 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
             e.setRegistered(true);
             e.setSlot(slot);
             characters[slot] = e;
+            active[size] = slot;
+            positions[slot] = size;
             e.create();
             size++;
             return true;
@@ -117,7 +142,9 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
             e.dispose();
             characters[e.getSlot()] = null;
             slotQueue.add(e.getSlot());
-            size--;
+            int last = active[--size];
+            active[positions[e.getSlot()]] = last;
+            positions[last] = positions[e.getSlot()];
             return true;
         }
         return false;
@@ -139,21 +166,22 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
     /**
      * {@inheritDoc}
      * <p>
-     * This implementation will exclude all elements with a value of
-     * {@code null} to avoid {@link NullPointerException}s.
+     * This implementation only visits occupied slots. Elements may safely be
+     * removed from this collection by {@code action}.
      */
     @Override
     public void forEach(Consumer<? super E> action) {
-        for (E e : characters) {
-            if (e == null)
-                continue;
+        for (int index = 0; index < size;) {
+            E e = characters[active[index]];
             action.accept(e);
+            if (index < size && characters[active[index]] == e)
+                index++;
         }
     }
 
     @Override
     public Spliterator<E> spliterator() {
-        return Spliterators.spliterator(characters, Spliterator.ORDERED);
+        return Spliterators.spliterator(iterator(), size, Spliterator.NONNULL);
     }
 
     /**
@@ -167,9 +195,8 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
      *         element was found.
      */
     public Optional<E> search(Predicate<? super E> filter) {
-        for (E e : characters) {
-            if (e == null)
-                continue;
+        for (int index = 0; index < size; index++) {
+            E e = characters[active[index]];
             if (filter.test(e))
                 return Optional.of(e);
         }
@@ -193,6 +220,16 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
         return characters[slot];
     }
 
+    /**
+     * Creates a copy of the slots currently occupied by elements, in iteration
+     * order.
+     *
+     * @return the occupied slots.
+     */
+    public int[] slots() {
+        return Arrays.copyOf(active, size);
+    }
+
     /**
      * Determines the amount of elements stored in this collection.
      *
@@ -221,12 +258,13 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
     }
 
     /**
-     * Returns a sequential stream with this collection as its source.
+     * Returns a sequential stream with this collection as its source. The
+     * stream does not contain elements with a value of {@code null}.
      *
      * @return a sequential stream over the elements in this collection.
      */
     public Stream<E> stream() {
-        return Arrays.stream(characters);
+        return StreamSupport.stream(spliterator(), false);
     }
 
     /**
@@ -238,11 +276,13 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
         forEach(this::remove);
         characters = (E[]) new CharacterNode[capacity];
         size = 0;
+        slotQueue.clear();
+        IntStream.range(1, capacity).forEach(slotQueue::add);
     }
 
     /**
      * An {@link Iterator} implementation that will iterate over the elements in
-     * a character list.
+     * a character list, skipping slots that are not occupied.
      *
      * @param <E>
      *            the type of character being iterated over.
@@ -256,14 +296,14 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
         private final CharacterList<E> list;
 
         /**
-         * The current index that the iterator is iterating over.
+         * The position within the packed slots of the next element.
          */
         private int index;
 
         /**
-         * The last index that the iterator iterated over.
+         * The last element that the iterator iterated over.
          */
-        private int lastIndex = -1;
+        private E last;
 
         /**
          * Creates a new {@link CharacterListIterator}.
@@ -277,26 +317,29 @@ public final class CharacterList<E extends CharacterNode> implements Iterable<E>
 
         @Override
         public boolean hasNext() {
-            return !(index + 1 > list.capacity());
+            return index < list.size;
         }
 
         @Override
         public E next() {
-            if (index >= list.capacity()) {
-                throw new ArrayIndexOutOfBoundsException("There are no " + "elements left to iterate over!");
+            if (index >= list.size) {
+                throw new NoSuchElementException("There are no " + "elements left to iterate over!");
             }
-            lastIndex = index;
-            index++;
-            return list.characters[lastIndex];
+            last = list.characters[list.active[index++]];
+            return last;
         }
 
         @Override
         public void remove() {
-            if (lastIndex == -1) {
+            if (last == null) {
                 throw new IllegalStateException("This method can only be " + "called once after \"next\".");
             }
-            list.remove(list.characters[lastIndex]);
-            lastIndex = -1;
+
+            // The last packed slot is moved into the place of the removed
+            // element, so it has to be visited next.
+            if (list.remove(last))
+                index--;
+            last = null;
         }
     }
 }
\ No newline at end of file
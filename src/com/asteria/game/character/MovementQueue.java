@@ -105,6 +105,7 @@ public final class MovementQueue {
 
             character.setLastPosition(character.getPosition().copy());
             character.getPosition().move(x, y);
+            World.updateRegion(character);
             character.setPrimaryDirection(walkPoint.getDirection());
             character.setLastDirection(walkPoint.getDirection());
 
@@ -136,6 +137,7 @@ public final class MovementQueue {
 
             character.setLastPosition(character.getPosition().copy());
             character.getPosition().move(x, y);
+            World.updateRegion(character);
             character.setSecondaryDirection(runPoint.getDirection());
             character.setLastDirection(runPoint.getDirection());
         }
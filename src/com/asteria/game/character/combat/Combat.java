@@ -301,7 +301,7 @@ public final class Combat {
      *            the action to execute for each victim.
      */
     public static void damagePlayersWithin(CharacterNode attacker, Position position, int radius, int hits, CombatType type, boolean checkAccuracy, Consumer<Player> action) {
-        damageCharactersWithin(attacker, () -> World.getLocalPlayers(attacker), position, radius, hits, type,
+        damageCharactersWithin(attacker, World.getPlayerRegions().getWithin(position, radius), position, radius, hits, type,
             checkAccuracy, action);
     }
 
@@ -350,7 +350,7 @@ public final class Combat {
      *            the action to execute for each victim.
      */
     public static void damageNpcsWithin(CharacterNode attacker, Position position, int radius, int hits, CombatType type, boolean checkAccuracy, Consumer<Npc> action) {
-        damageCharactersWithin(attacker, () -> World.getLocalNpcs(attacker), position, radius, hits, type,
+        damageCharactersWithin(attacker, World.getNpcRegions().getWithin(position, radius), position, radius, hits, type,
             checkAccuracy, action);
     }
 
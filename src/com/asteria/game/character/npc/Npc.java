@@ -85,12 +85,13 @@ public final class Npc extends CharacterNode {
 
     @Override
     public void create() {
-
+        World.updateRegion(this);
     }
 
     @Override
     public void dispose() {
         setPosition(new Position(1, 1));
+        World.updateRegion(this);
         World.getTaskQueue().cancel(this);
     }
 
@@ -19,6 +19,18 @@ import com.asteria.utility.BitMask;
  */
 public final class NpcUpdating {
 
+    /**
+     * The scratch buffer that NPC update messages are built in, reused by each
+     * thread that performs updating.
+     */
+    private static final ThreadLocal<MessageBuilder> MESSAGE = ThreadLocal.withInitial(() -> MessageBuilder.create(2048));
+
+    /**
+     * The scratch buffer that update blocks are built in, reused by each thread
+     * that performs updating.
+     */
+    private static final ThreadLocal<MessageBuilder> BLOCK = ThreadLocal.withInitial(() -> MessageBuilder.create(1024));
+
     /**
      * The default constructor.
      *
@@ -38,8 +50,8 @@ public final class NpcUpdating {
      *             if any errors occur while updating NPCs for the player.
      */
     public static void update(Player player) throws Exception {
-        MessageBuilder out = MessageBuilder.create(2048);
-        MessageBuilder block = MessageBuilder.create(1024);
+        MessageBuilder out = MESSAGE.get().clear();
+        MessageBuilder block = BLOCK.get().clear();
         out.newVarShortMessage(65);
         out.startBitAccess();
         out.putBits(8, player.getLocalNpcs().size());
@@ -57,12 +69,10 @@ public final class NpcUpdating {
             }
         }
         int added = 0;
-        for (Npc npc : World.getNpcs()) {
+        for (Npc npc : World.getNpcRegions().getViewable(player.getPosition())) {
             if (added == 15 || player.getLocalNpcs().size() >= 255)
                 break;
-            if (npc == null)
-                continue;
-            if (npc.getPosition().isViewableFrom(player.getPosition()) && npc.isVisible()) {
+            if (npc.isVisible()) {
                 if (player.getLocalNpcs().add(npc)) {
                     npc.getFlags().set(Flag.APPEARANCE);
                     addNpc(out, player, npc);
@@ -81,7 +91,7 @@ public final class NpcUpdating {
             out.endBitAccess();
         }
         out.endVarShortMessage();
-        player.getSession().queue(out);
+        player.getSession().queue(out.copyPooled());
     }
 
     /**
@@ -44,6 +44,7 @@ import com.asteria.game.character.player.dialogue.DialogueChainBuilder;
 import com.asteria.game.character.player.dialogue.OptionType;
 import com.asteria.game.character.player.minigame.MinigameHandler;
 import com.asteria.game.character.player.serialize.PlayerSerialization;
+import com.asteria.game.character.player.serialize.PlayerSerializationFragments;
 import com.asteria.game.character.player.skill.Skill;
 import com.asteria.game.character.player.skill.Skills;
 import com.asteria.game.item.Item;
@@ -130,6 +131,11 @@ public final class Player extends CharacterNode {
      */
     private final PrivateMessage privateMessage = new PrivateMessage(this);
 
+    /**
+     * The encoded sections of the last character file saved for this player.
+     */
+    private final PlayerSerializationFragments serializationFragments = new PlayerSerializationFragments();
+
     /**
      * The dialogue chain builder for this player.
      */
@@ -374,6 +380,12 @@ public final class Player extends CharacterNode {
      */
     private ByteBuf cachedUpdateBlock;
 
+    /**
+     * The cached appearance block for updating, this is invalidated whenever
+     * something that the appearance block depends on changes.
+     */
+    private ByteBuf cachedAppearance;
+
     /**
      * The username hash for this player.
      */
@@ -468,6 +480,7 @@ public final class Player extends CharacterNode {
 
     @Override
     public void dispose() {
+        World.updateRegion(this);
         messages.sendLogout();
     }
 
@@ -669,6 +682,7 @@ public final class Player extends CharacterNode {
         getMovementQueue().reset();
         encoder.sendCloseWindows();
         super.setPosition(position.copy());
+        World.updateRegion(this);
         setResetMovementQueue(true);
         setNeedsPlacement(true);
         encoder.sendMapRegion();
@@ -680,7 +694,7 @@ public final class Player extends CharacterNode {
     public void save() {
         if (session.getState() != IOState.LOGGED_IN && session.getState() != IOState.LOGGING_OUT)
             return;
-        World.getService().submit(() -> new PlayerSerialization(this).serialize());
+        PlayerSerialization.getWriter().submit(this);
     }
 
     /**
@@ -863,6 +877,16 @@ public final class Player extends CharacterNode {
         return privateMessage;
     }
 
+    /**
+     * Gets the encoded sections of the last character file saved for this
+     * player.
+     *
+     * @return the encoded sections.
+     */
+    public PlayerSerializationFragments getSerializationFragments() {
+        return serializationFragments;
+    }
+
     /**
      * Gets the I/O manager that manages I/O operations for this player.
      *
@@ -1274,6 +1298,7 @@ public final class Player extends CharacterNode {
      */
     public void setWeaponAnimation(WeaponAnimation weaponAnimation) {
         this.weaponAnimation = weaponAnimation;
+        this.cachedAppearance = null;
     }
 
     /**
@@ -1484,6 +1509,7 @@ public final class Player extends CharacterNode {
      */
     public void setHeadIcon(int headIcon) {
         this.headIcon = headIcon;
+        this.cachedAppearance = null;
     }
 
     /**
@@ -1503,6 +1529,7 @@ public final class Player extends CharacterNode {
      */
     public void setSkullIcon(int skullIcon) {
         this.skullIcon = skullIcon;
+        this.cachedAppearance = null;
     }
 
     /**
@@ -1697,6 +1724,7 @@ public final class Player extends CharacterNode {
      */
     public void setPlayerNpc(int playerNpc) {
         this.playerNpc = playerNpc;
+        this.cachedAppearance = null;
     }
 
     /**
@@ -1718,6 +1746,26 @@ public final class Player extends CharacterNode {
         this.cachedUpdateBlock = cachedUpdateBlock;
     }
 
+    /**
+     * Gets the cached appearance block for updating.
+     *
+     * @return the cached appearance block.
+     */
+    public ByteBuf getCachedAppearance() {
+        return cachedAppearance;
+    }
+
+    /**
+     * Sets the value for {@link Player#cachedAppearance}. A value of
+     * {@code null} will invalidate the cached appearance block.
+     *
+     * @param cachedAppearance
+     *            the new value to set.
+     */
+    public void setCachedAppearance(ByteBuf cachedAppearance) {
+        this.cachedAppearance = cachedAppearance;
+    }
+
     /**
      * Gets the username hash for this player.
      *
@@ -1,5 +1,8 @@
 package com.asteria.game.character.player;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
 import java.util.Iterator;
 
 import com.asteria.game.World;
@@ -20,6 +23,18 @@ import com.asteria.utility.BitMask;
  */
 public final class PlayerUpdating {
 
+    /**
+     * The scratch buffer that player update messages are built in, reused by
+     * each thread that performs updating.
+     */
+    private static final ThreadLocal<MessageBuilder> MESSAGE = ThreadLocal.withInitial(() -> MessageBuilder.create(16384));
+
+    /**
+     * The scratch buffer that update blocks are built in, reused by each thread
+     * that performs updating.
+     */
+    private static final ThreadLocal<MessageBuilder> BLOCK = ThreadLocal.withInitial(() -> MessageBuilder.create(8192));
+
     /**
      * The default constructor.
      *
@@ -39,8 +54,8 @@ public final class PlayerUpdating {
      *             if any errors occur while updating the player.
      */
     public static void update(Player player) throws Exception {
-        MessageBuilder out = MessageBuilder.create(16384);
-        MessageBuilder block = MessageBuilder.create(8192);
+        MessageBuilder out = MESSAGE.get().clear();
+        MessageBuilder block = BLOCK.get().clear();
         out.newVarShortMessage(81);
         out.startBitAccess();
         PlayerUpdating.updateLocalPlayerMovement(player, out);
@@ -62,12 +77,12 @@ public final class PlayerUpdating {
             }
         }
         int added = 0;
-        for (Player other : World.getPlayers()) {
+        for (Player other : World.getPlayerRegions().getViewable(player.getPosition())) {
             if (added == 15 || player.getLocalPlayers().size() >= 255)
                 break;
-            if (other == null || other.equals(player) || other.getSession().getState() != IOState.LOGGED_IN)
+            if (other.equals(player) || other.getSession().getState() != IOState.LOGGED_IN)
                 continue;
-            if (other.getPosition().isViewableFrom(player.getPosition()) && other.isVisible()) {
+            if (other.isVisible()) {
                 if (player.getLocalPlayers().add(other)) {
                     added++;
                     PlayerUpdating.addPlayer(out, player, other);
@@ -83,7 +98,7 @@ public final class PlayerUpdating {
             out.endBitAccess();
         }
         out.endVarShortMessage();
-        player.getSession().queue(out);
+        player.getSession().queue(out.copyPooled());
     }
 
     /**
@@ -102,7 +117,9 @@ public final class PlayerUpdating {
     }
 
     /**
-     * Appends the state of appearance to {@code out} for {@code player}.
+     * Appends the state of appearance to {@code out} for {@code player}. The
+     * appearance block is only encoded again if the cached block has been
+     * invalidated.
      *
      * @param player
      *            the player to append the state for.
@@ -110,6 +127,21 @@ public final class PlayerUpdating {
      *            the buffer to append it to.
      */
     private static void appendAppearance(Player player, MessageBuilder out) {
+        ByteBuf block = player.getCachedAppearance();
+        if (block == null)
+            block = encodeAppearance(player);
+        out.put(block.writerIndex(), ValueType.C);
+        out.putBytes(block);
+    }
+
+    /**
+     * Encodes the appearance block for {@code player}.
+     *
+     * @param player
+     *            the player to encode the appearance block for.
+     * @return the buffer containing the encoded appearance block.
+     */
+    private static ByteBuf encodeAppearance(Player player) {
         Appearance appearance = player.getAppearance();
         MessageBuilder block = MessageBuilder.create(128);
         block.put(appearance.getGender());
@@ -210,9 +242,7 @@ public final class PlayerUpdating {
         block.putLong(player.getUsernameHash());
         block.put(player.determineCombatLevel());
         block.putShort(0);
-
-        out.put(block.buffer().writerIndex(), ValueType.C);
-        out.putBytes(block.buffer());
+        return Unpooled.unmodifiableBuffer(block.buffer());
     }
 
     /**
@@ -304,6 +334,49 @@ public final class PlayerUpdating {
         }
     }
 
+    /**
+     * Determines if {@code player} has been dealt a fatal hit this cycle, and
+     * if so starts the death sequence. This must be done on the game thread
+     * before the update blocks are encoded, so the hitpoints encoded within
+     * the hit blocks are correct.
+     *
+     * @param player
+     *            the player to check for death.
+     */
+    public static void checkDeath(Player player) {
+        if (!player.getFlags().get(Flag.HIT) && !player.getFlags().get(Flag.HIT_2))
+            return;
+        if (!player.isDead()) {
+            if (player.getSkills()[Skills.HITPOINTS].getLevel() <= 0) {
+                player.getSkills()[Skills.HITPOINTS].setLevel(0, true);
+                player.setDead(true);
+                World.submit(new PlayerDeath(player));
+            }
+        }
+    }
+
+    /**
+     * Encodes the update block of {@code player} as it will be seen by every
+     * other player and caches it, this is done exactly once per cycle before
+     * any update messages are built so the block can be spliced into each
+     * message without being encoded again. The appearance block is also
+     * encoded here if it was invalidated since the last cycle.
+     *
+     * @param player
+     *            the player to encode the update block for.
+     * @throws Exception
+     *             if any errors occur while encoding the update block.
+     */
+    public static void prepare(Player player) throws Exception {
+        if (player.getCachedAppearance() == null)
+            player.setCachedAppearance(encodeAppearance(player));
+        if (!player.getFlags().needsUpdate())
+            return;
+        MessageBuilder block = BLOCK.get().clear();
+        encodeState(player, block, false, false);
+        player.setCachedUpdateBlock(Unpooled.unmodifiableBuffer(Unpooled.copiedBuffer(block.buffer())));
+    }
+
     /**
      * Updates the state of {@code thisPlayer} for {@code player}.
      *
@@ -327,7 +400,24 @@ public final class PlayerUpdating {
             block.putBytes(player.getCachedUpdateBlock());
             return;
         }
-        MessageBuilder cachedBuffer = MessageBuilder.create(300);
+        encodeState(player, block, forceAppearance, noChat);
+    }
+
+    /**
+     * Encodes the state of {@code player} to {@code block}.
+     *
+     * @param player
+     *            the player to encode the state for.
+     * @param block
+     *            the buffer that the data will be written to.
+     * @param forceAppearance
+     *            if the appearance block is being forced.
+     * @param noChat
+     *            if the chat block is being disabled.
+     * @throws Exception
+     *             if any errors occur while encoding the state.
+     */
+    private static void encodeState(Player player, MessageBuilder block, boolean forceAppearance, boolean noChat) throws Exception {
         BitMask mask = new BitMask();
 
         if (player.getFlags().get(Flag.FORCED_MOVEMENT)) {
@@ -362,45 +452,41 @@ public final class PlayerUpdating {
         }
         if (mask.get() >= 0x100) {
             mask.set(0x40);
-            cachedBuffer.putShort(mask.get(), ByteOrder.LITTLE);
+            block.putShort(mask.get(), ByteOrder.LITTLE);
         } else {
-            cachedBuffer.put(mask.get());
+            block.put(mask.get());
         }
 
         if (player.getFlags().get(Flag.FORCED_MOVEMENT)) {
-            // appendForcedMovement(player, cachedBuffer);
+            // appendForcedMovement(player, block);
         }
         if (player.getFlags().get(Flag.GRAPHICS)) {
-            appendGraphic(player, cachedBuffer);
+            appendGraphic(player, block);
         }
         if (player.getFlags().get(Flag.ANIMATION)) {
-            appendAnimation(player, cachedBuffer);
+            appendAnimation(player, block);
         }
         if (player.getFlags().get(Flag.FORCED_CHAT)) {
-            appendForcedChat(player, cachedBuffer);
+            appendForcedChat(player, block);
         }
         if (player.getFlags().get(Flag.CHAT) && !noChat) {
-            appendChat(player, cachedBuffer);
+            appendChat(player, block);
         }
         if (player.getFlags().get(Flag.FACE_CHARACTER)) {
-            appendFaceCharacter(player, cachedBuffer);
+            appendFaceCharacter(player, block);
         }
         if (player.getFlags().get(Flag.APPEARANCE) || forceAppearance) {
-            appendAppearance(player, cachedBuffer);
+            appendAppearance(player, block);
         }
         if (player.getFlags().get(Flag.FACE_COORDINATE)) {
-            appendFaceCoordinates(player, cachedBuffer);
+            appendFaceCoordinates(player, block);
         }
         if (player.getFlags().get(Flag.HIT)) {
-            appendPrimaryHit(player, cachedBuffer);
+            appendPrimaryHit(player, block);
         }
         if (player.getFlags().get(Flag.HIT_2)) {
-            appendSecondaryHit(player, cachedBuffer);
-        }
-        if (!player.equals(thisPlayer) && !forceAppearance && !noChat) {
-            player.setCachedUpdateBlock(cachedBuffer.buffer());
+            appendSecondaryHit(player, block);
         }
-        block.putBytes(cachedBuffer.buffer());
     }
 
     /**
@@ -463,18 +549,10 @@ public final class PlayerUpdating {
      * @param out
      *            the buffer to append it to.
      */
-    private static void appendPrimaryHit(Player player, MessageBuilder out) throws Exception {
+    private static void appendPrimaryHit(Player player, MessageBuilder out) {
         out.put(player.getPrimaryHit().getDamage());
         out.put(player.getPrimaryHit().getType().getId(), ValueType.A);
 
-        if (!player.isDead()) {
-            if (player.getSkills()[Skills.HITPOINTS].getLevel() <= 0) {
-                player.getSkills()[Skills.HITPOINTS].setLevel(0, true);
-                player.setDead(true);
-                World.submit(new PlayerDeath(player));
-            }
-        }
-
         out.put(player.getSkills()[Skills.HITPOINTS].getLevel(), ValueType.C);
         out.put(player.getSkills()[Skills.HITPOINTS].getRealLevel());
     }
@@ -487,18 +565,10 @@ public final class PlayerUpdating {
      * @param out
      *            the buffer to append it to.
      */
-    private static void appendSecondaryHit(Player player, MessageBuilder out) throws Exception {
+    private static void appendSecondaryHit(Player player, MessageBuilder out) {
         out.put(player.getSecondaryHit().getDamage());
         out.put(player.getSecondaryHit().getType().getId(), ValueType.S);
 
-        if (!player.isDead()) {
-            if (player.getSkills()[Skills.HITPOINTS].getLevel() <= 0) {
-                player.getSkills()[Skills.HITPOINTS].setLevel(0, true);
-                player.setDead(true);
-                World.submit(new PlayerDeath(player));
-            }
-        }
-
         out.put(player.getSkills()[Skills.HITPOINTS].getLevel());
         out.put(player.getSkills()[Skills.HITPOINTS].getRealLevel(), ValueType.C);
     }
@@ -21,6 +21,11 @@ public final class PrivateMessage {
      */
     private final MutableNumber lastMessage = new MutableNumber(1);
 
+    /**
+     * The amount of times the friends or ignores list has been modified.
+     */
+    private int modifications;
+
     /**
      * Creates a new {@link PrivateMessage}.
      *
@@ -71,6 +76,7 @@ public final class PrivateMessage {
             return;
         }
         if (player.getFriends().add(name)) {
+            modifications++;
             player.getMessages().sendPrivateMessageFriend(name, World.getPlayer(name).isPresent());
         } else {
             player.getMessages().sendMessage("They are already on your friends" + " list!");
@@ -88,8 +94,11 @@ public final class PrivateMessage {
             player.getMessages().sendMessage("Your ignores list is full!");
             return;
         }
-        if (!player.getIgnores().add(name))
+        if (player.getIgnores().add(name)) {
+            modifications++;
+        } else {
             player.getMessages().sendMessage("They are already on your ignores" + " list!");
+        }
     }
 
     /**
@@ -99,7 +108,9 @@ public final class PrivateMessage {
      *            the name of the existing friend to remove.
      */
     public void removeFriend(long name) {
-        if (!player.getFriends().remove(name)) {
+        if (player.getFriends().remove(name)) {
+            modifications++;
+        } else {
             player.getMessages().sendMessage("They are not on your friends " + "list.");
         }
     }
@@ -111,7 +122,9 @@ public final class PrivateMessage {
      *            the name of the existing ignore to remove.
      */
     public void removeIgnore(long name) {
-        if (!player.getIgnores().remove(name)) {
+        if (player.getIgnores().remove(name)) {
+            modifications++;
+        } else {
             player.getMessages().sendMessage("They are not on your ignores " + "list.");
         }
     }
@@ -140,4 +153,13 @@ public final class PrivateMessage {
     public MutableNumber getLastMessage() {
         return lastMessage;
     }
+
+    /**
+     * Gets the amount of times the friends or ignores list has been modified.
+     *
+     * @return the amount of modifications.
+     */
+    public int getModifications() {
+        return modifications;
+    }
 }
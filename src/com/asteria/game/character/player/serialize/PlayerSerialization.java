@@ -1,11 +1,20 @@
 package com.asteria.game.character.player.serialize;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -19,18 +28,11 @@ import com.asteria.game.character.player.Rights;
 import com.asteria.game.character.player.content.Spellbook;
 import com.asteria.game.character.player.skill.Skill;
 import com.asteria.game.character.player.skill.Skills;
-import com.asteria.game.item.Item;
 import com.asteria.game.item.container.Bank;
 import com.asteria.game.item.container.Equipment;
 import com.asteria.game.item.container.Inventory;
-import com.asteria.game.location.Position;
 import com.asteria.net.login.LoginResponse;
 import com.asteria.utility.MutableNumber;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 /**
  * The serializer that will serialize and deserialize character files for
@@ -38,7 +40,13 @@ import com.google.gson.JsonParser;
  * <p>
  * <p>
  * Serialization of character files can and should be done on another thread
- * whenever possible to avoid doing disk I/O on the main game thread.
+ * whenever possible to avoid doing disk I/O on the main game thread, which is
+ * why players should be saved through the {@link PlayerSerializationWriter}.
+ * Character files are written in the {@link GameConstants#SERIALIZATION_FORMAT}
+ * but can be read in any {@link PlayerSerializationFormat}. Character files in
+ * other formats are never deleted when a player is saved, existing character
+ * files are only converted in bulk by the
+ * {@link PlayerSerializationMigration} tool.
  *
  * @author lare96 <http://github.com/lare96>
  */
@@ -50,12 +58,27 @@ public final class PlayerSerialization {
      */
     private static PlayerSerializationCache cache = new PlayerSerializationCache(GameConstants.CLEAN_CACHE);
 
+    /**
+     * The writer that will write character files on a dedicated thread.
+     */
+    private static PlayerSerializationWriter writer = new PlayerSerializationWriter();
+
+    /**
+     * The store that character files are kept in, if enabled.
+     */
+    private static PlayerStore store = new PlayerStore();
+
+    /**
+     * The directory that character files are stored in.
+     */
+    static final Path DIRECTORY = Paths.get("./data/players/");
+
     /**
      * The linked hash collection of tokens that will be serialized and
      * deserialized. A linked hash set is used here to ensure that there is only
      * one of each token, and to preserve order.
      */
-    private final Set<TokenSerializer> tokens = new LinkedHashSet<>();
+    private final Set<TokenSerializer<?>> tokens = new LinkedHashSet<>();
 
     /**
      * The player this serializer is dedicated to.
@@ -63,19 +86,16 @@ public final class PlayerSerialization {
     private final Player player;
 
     /**
-     * The character file that corresponds to this player.
-     */
-    private final File cf;
-
-    /**
-     * Creates a new {@link PlayerSerialization}.
+     * Creates a new {@link PlayerSerialization}. The values of every token are
+     * copied from the player when the serializer is created, so a serializer
+     * created on the game thread is a consistent snapshot of the player that
+     * may safely be serialized on any other thread.
      *
      * @param player
      *            the player this serializer is dedicated to.
      */
     public PlayerSerialization(Player player) {
         this.player = player;
-        this.cf = Paths.get("./data/players/" + player.getUsername() + "" + ".json").toFile();
         createTokens();
     }
 
@@ -87,23 +107,23 @@ public final class PlayerSerialization {
      * The token serialization format is as follows:
      * <p>
      * <p>
-     * 
+     *
      * <pre>
-     * tokens.add(new TokenSerializer(NAME_OF_TOKEN, SERIALIZATION, DESERIALIZATION));
+     * tokens.add(new TokenSerializer&lt;&gt;(NAME_OF_TOKEN, SERIALIZATION, CODEC, DESERIALIZATION));
      * </pre>
      * <p>
      * For those who are still confused, here is an example. Lets say we want
      * "deathCount" to be saved to and loaded from the character file:
      * <p>
      * <p>
-     * 
+     *
      * <pre>
      * private int deathCount;
-     * 
+     *
      * public void setDeathCount(int deathCount) {
      *     this.deathCount = deathCount;
      * }
-     * 
+     *
      * public int getDeathCount() {
      *     return deathCount;
      * }
@@ -112,81 +132,124 @@ public final class PlayerSerialization {
      * We would be able to do it like this:
      * <p>
      * <p>
-     * 
+     *
      * <pre>
-     * tokens.add(new TokenSerializer(&quot;death-count&quot;, player.getDeathCount(), n -&gt; player.setDeathCount(n.getAsInt())));
+     * tokens.add(new TokenSerializer&lt;&gt;(&quot;death-count&quot;, player.getDeathCount(), TokenCodec.INTEGER, player::setDeathCount));
      * </pre>
+     * <p>
+     * Large tokens that rarely change are taken from the
+     * {@link PlayerSerializationFragments} of the player instead, with a
+     * version built from the modification counts of their data, so that they
+     * are only copied and encoded again once they have been modified.
      */
     private void createTokens() {
-        Gson b = new GsonBuilder().create();
         Player p = player;
-        tokens.add(new TokenSerializer("username", p.getUsername(), n -> p.setUsername(n.getAsString())));
-        tokens.add(new TokenSerializer("password", p.getPassword(), n -> p.setPassword(n.getAsString())));
-        tokens.add(new TokenSerializer("position", p.getPosition(), n -> p.setPosition(b.fromJson(n, Position.class))));
-        tokens.add(new TokenSerializer("rights", p.getRights(), n -> p.setRights(Rights.valueOf(n.getAsString()))));
+        tokens.add(new TokenSerializer<>("username", p.getUsername(), TokenCodec.STRING, p::setUsername));
+        tokens.add(new TokenSerializer<>("password", p.getPassword(), TokenCodec.STRING, p::setPassword));
+        tokens.add(new TokenSerializer<>("position", p.getPosition().copy(), TokenCodec.POSITION, p::setPosition));
+        tokens.add(new TokenSerializer<>("rights", p.getRights().name(), TokenCodec.STRING, n -> p.setRights(Rights.valueOf(n))));
         Appearance appearance = p.getAppearance();
-        tokens.add(new TokenSerializer("appearance", appearance.getValues(), n -> appearance.setValues(b.fromJson(n, int[].class))));
+        tokens.add(new TokenSerializer<>("appearance", appearance.getValues(), TokenCodec.INTEGER_ARRAY, appearance::setValues));
         MovementQueue movement = p.getMovementQueue();
-        tokens.add(new TokenSerializer("running", movement.isRunning(), n -> movement.setRunning(n.getAsBoolean())));
-        tokens.add(new TokenSerializer("new-player", p.isNewPlayer(), n -> p.setNewPlayer(n.getAsBoolean())));
+        tokens.add(new TokenSerializer<>("running", movement.isRunning(), TokenCodec.BOOLEAN, movement::setRunning));
+        tokens.add(new TokenSerializer<>("new-player", p.isNewPlayer(), TokenCodec.BOOLEAN, p::setNewPlayer));
+        PlayerSerializationFragments s = p.getSerializationFragments();
         Inventory inventory = p.getInventory();
-        tokens.add(new TokenSerializer("inventory", inventory.container(), n -> inventory.setItems(b.fromJson(n, Item[].class))));
+        tokens.add(new TokenSerializer<>("inventory", s.get("inventory", inventory.getModifications(), TokenCodec.ITEM_ARRAY,
+            inventory::containerCopy), inventory::setItems));
         Bank bank = p.getBank();
-        tokens.add(new TokenSerializer("bank", bank.container(), n -> bank.setItems(b.fromJson(n, Item[].class))));
+        tokens.add(new TokenSerializer<>("bank", s.get("bank", bank.getModifications(), TokenCodec.ITEM_ARRAY, bank::containerCopy),
+            bank::setItems));
         Equipment equipment = p.getEquipment();
-        tokens.add(new TokenSerializer("equipment", equipment.container(), n -> equipment.setItems(b.fromJson(n, Item[].class))));
+        tokens.add(new TokenSerializer<>("equipment", s.get("equipment", equipment.getModifications(), TokenCodec.ITEM_ARRAY,
+            equipment::containerCopy), equipment::setItems));
+        int lists = p.getPrivateMessage().getModifications();
         Set<Long> f = p.getFriends();
-        tokens.add(new TokenSerializer("friends", f.toArray(), n -> Collections.addAll(f, b.fromJson(n, Long[].class))));
+        tokens.add(new TokenSerializer<>("friends", s.get("friends", lists, TokenCodec.LONG_ARRAY, () -> f.toArray(new Long[f.size()])),
+            n -> Collections.addAll(f, n)));
         Set<Long> i = p.getIgnores();
-        tokens.add(new TokenSerializer("ignores", i.toArray(), n -> Collections.addAll(i, b.fromJson(n, Long[].class))));
+        tokens.add(new TokenSerializer<>("ignores", s.get("ignores", lists, TokenCodec.LONG_ARRAY, () -> i.toArray(new Long[i.size()])),
+            n -> Collections.addAll(i, n)));
         MutableNumber energy = p.getRunEnergy();
-        tokens.add(new TokenSerializer("run-energy", energy.get(), n -> energy.set(n.getAsInt())));
+        tokens.add(new TokenSerializer<>("run-energy", energy.get(), TokenCodec.INTEGER, energy::set));
         Spellbook book = p.getSpellbook();
-        tokens.add(new TokenSerializer("spellbook", book.name(), n -> p.setSpellbook(Spellbook.valueOf(n.getAsString()))));
-        tokens.add(new TokenSerializer("account-banned", p.isBanned(), n -> p.setBanned(n.getAsBoolean())));
-        tokens.add(new TokenSerializer("auto-retaliate", p.isAutoRetaliate(), n -> p.setAutoRetaliate(n.getAsBoolean())));
+        tokens.add(new TokenSerializer<>("spellbook", book.name(), TokenCodec.STRING, n -> p.setSpellbook(Spellbook.valueOf(n))));
+        tokens.add(new TokenSerializer<>("account-banned", p.isBanned(), TokenCodec.BOOLEAN, p::setBanned));
+        tokens.add(new TokenSerializer<>("auto-retaliate", p.isAutoRetaliate(), TokenCodec.BOOLEAN, p::setAutoRetaliate));
         FightType type = p.getFightType();
-        tokens.add(new TokenSerializer("fight-type", type.name(), n -> p.setFightType(FightType.valueOf(n.getAsString()))));
+        tokens.add(new TokenSerializer<>("fight-type", type.name(), TokenCodec.STRING, n -> p.setFightType(FightType.valueOf(n))));
         MutableNumber skulled = p.getSkullTimer();
-        tokens.add(new TokenSerializer("skull-timer", skulled.get(), n -> skulled.set(n.getAsInt())));
-        tokens.add(new TokenSerializer("accept-aid", p.isAcceptAid(), n -> p.setAcceptAid(n.getAsBoolean())));
-        tokens.add(new TokenSerializer("poison-damage", p.getPoisonDamage().get(), n -> p.getPoisonDamage().set(n.getAsInt())));
+        tokens.add(new TokenSerializer<>("skull-timer", skulled.get(), TokenCodec.INTEGER, skulled::set));
+        tokens.add(new TokenSerializer<>("accept-aid", p.isAcceptAid(), TokenCodec.BOOLEAN, p::setAcceptAid));
+        tokens.add(new TokenSerializer<>("poison-damage", p.getPoisonDamage().get(), TokenCodec.INTEGER, p.getPoisonDamage()::set));
         MutableNumber teleblocked = p.getTeleblockTimer();
-        tokens.add(new TokenSerializer("teleblock-timer", teleblocked.get(), n -> teleblocked.set(n.getAsInt())));
+        tokens.add(new TokenSerializer<>("teleblock-timer", teleblocked.get(), TokenCodec.INTEGER, teleblocked::set));
         MutableNumber percentage = p.getSpecialPercentage();
-        tokens.add(new TokenSerializer("special-amount", percentage.get(), n -> percentage.set(n.getAsInt())));
+        tokens.add(new TokenSerializer<>("special-amount", percentage.get(), TokenCodec.INTEGER, percentage::set));
         Skill[] skills = p.getSkills();
-        tokens.add(new TokenSerializer("skills", skills, n -> System.arraycopy(b.fromJson(n, Skill[].class), 0, skills, 0, skills.length)));
+        tokens.add(new TokenSerializer<>("skills", s.get("skills", version(skills), TokenCodec.SKILL_ARRAY, () -> Arrays.stream(
+            skills).map(k -> k == null ? null : k.copy()).toArray(Skill[]::new)), n -> System.arraycopy(n, 0, skills, 0, skills.length)));
     }
 
     /**
-     * Serializes the dedicated player into a {@code JSON} file.
+     * Builds the version of {@code skills}, from every skill and the amount of
+     * times it has been modified. Skills are compared by identity, so the
+     * version also changes when a skill is replaced.
+     *
+     * @param skills
+     *            the skills to build the version of.
+     * @return the version of the skills.
      */
-    public void serialize() {
+    private static Object[] version(Skill[] skills) {
+        Object[] version = new Object[skills.length * 2];
+        for (int i = 0; i < skills.length; i++) {
+            version[i * 2] = skills[i];
+            version[i * 2 + 1] = skills[i] == null ? 0 : skills[i].getModifications();
+        }
+        return version;
+    }
+
+    /**
+     * Serializes the dedicated player into a character file. If the
+     * {@link PlayerStore} is enabled the character file is appended to it,
+     * and is not guaranteed to be durable until {@link #sync()} is invoked.
+     * Otherwise the data is written to a temporary file and forced to disk
+     * before it atomically replaces the character file, so the character file
+     * is never left partially written.
+     *
+     * @return {@code true} if the character file was written, {@code false}
+     *         otherwise.
+     */
+    public boolean serialize() {
         try {
-            cf.getParentFile().setWritable(true);
-            if (!cf.getParentFile().exists()) {
+            PlayerSerializationFormat format = GameConstants.SERIALIZATION_FORMAT;
+            Map<String, Object> encoded = new LinkedHashMap<>();
+            tokens.forEach(t -> encoded.put(t.getName(), t.getFragment().encode(format)));
+            byte[] data = format.assemble(encoded);
+            if (GameConstants.PLAYER_STORE) {
+                store.put(player.getUsernameHash(), record(format, data));
+                cache.add(player.getUsernameHash(), data);
+                return true;
+            }
+            DIRECTORY.toFile().setWritable(true);
+            if (!Files.exists(DIRECTORY)) {
                 try {
-                    cf.getParentFile().mkdirs();
+                    Files.createDirectories(DIRECTORY);
                 } catch (SecurityException e) {
                     throw new IllegalStateException("Unable to create " + "directory for character files!");
                 }
             }
-            try (FileWriter out = new FileWriter(cf)) {
-                Gson gson = new GsonBuilder().setPrettyPrinting().addSerializationExclusionStrategy(new PlayerSerializationFilter())
-                    .create();
-                JsonObject obj = new JsonObject();
-                tokens.stream().forEach(t -> obj.add(t.getName(), gson.toJsonTree(t.getToJson())));
-                out.write(gson.toJson(obj));
-                cache.add(player.getUsernameHash(), obj);
-            }
+            write(getPath(player.getUsername(), format), data);
+            cache.add(player.getUsernameHash(), data);
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * Deserializes the dedicated player from a {@code JSON} file.
+     * Deserializes the dedicated player from a character file.
      *
      * @param password
      *            the password that will be used to validate if the player has
@@ -196,21 +259,21 @@ public final class PlayerSerialization {
      */
     public LoginResponse deserialize(String password) {
         try {
-            if (!cf.exists()) {
-                Skills.create(player);
-                return LoginResponse.NORMAL;
-            }
-            Optional<JsonObject> cached = cache.get(player.getUsernameHash());
+            writer.await(player.getUsernameHash());
+            Optional<byte[]> cached = cache.get(player.getUsernameHash());
+            Map<String, Object> values;
             if (cached.isPresent()) {
-                tokens.stream().filter(t -> cached.get().has(t.getName())).forEach(
-                    t -> t.getFromJson().accept(cached.get().get(t.getName())));
+                values = GameConstants.SERIALIZATION_FORMAT.decode(cached.get(), schema());
             } else {
-                cf.setReadable(true);
-                try (FileReader in = new FileReader(cf)) {
-                    JsonObject reader = (JsonObject) new JsonParser().parse(in);
-                    tokens.stream().filter(t -> reader.has(t.getName())).forEach(t -> t.getFromJson().accept(reader.get(t.getName())));
+                Optional<Map<String, Object>> loaded = load();
+                if (!loaded.isPresent()) {
+                    Skills.create(player);
+                    return LoginResponse.NORMAL;
                 }
+                values = loaded.get();
             }
+            tokens.stream().filter(t -> values.containsKey(t.getName())).forEach(t -> t.accept(values.get(t.getName())));
+            player.getSerializationFragments().clear();
             if (!password.equals(player.getPassword()))
                 return LoginResponse.INVALID_CREDENTIALS;
             if (player.isBanned())
@@ -222,6 +285,164 @@ public final class PlayerSerialization {
         return LoginResponse.NORMAL;
     }
 
+    /**
+     * Reads the values of the tokens of the dedicated player from the
+     * {@link PlayerStore} if it is enabled and holds the player, or otherwise
+     * from the character file of the player.
+     *
+     * @return the values of the tokens wrapped in an optional, or an empty
+     *         optional if the player has no character file.
+     * @throws IOException
+     *             if the character file could not be read.
+     */
+    private Optional<Map<String, Object>> load() throws IOException {
+        if (GameConstants.PLAYER_STORE) {
+            Optional<byte[]> record = store.get(player.getUsernameHash());
+            if (record.isPresent()) {
+                byte[] data = record.get();
+                return Optional.of(PlayerSerializationFormat.values()[data[0]].decode(Arrays.copyOfRange(data, 1, data.length),
+                    schema()));
+            }
+        }
+        Optional<PlayerSerializationFormat> format = find(player.getUsername());
+        if (!format.isPresent())
+            return Optional.empty();
+        Path path = getPath(player.getUsername(), format.get());
+        path.toFile().setReadable(true);
+        return Optional.of(format.get().decode(Files.readAllBytes(path), schema()));
+    }
+
+    /**
+     * Creates a record for the {@link PlayerStore}, which is {@code data}
+     * prefixed with the format it is written in.
+     *
+     * @param format
+     *            the format the data is written in.
+     * @param data
+     *            the contents of the character file.
+     * @return the record for the store.
+     */
+    static byte[] record(PlayerSerializationFormat format, byte[] data) {
+        byte[] record = new byte[data.length + 1];
+        record[0] = (byte) format.ordinal();
+        System.arraycopy(data, 0, record, 1, data.length);
+        return record;
+    }
+
+    /**
+     * Makes every character file serialized so far durable. If the
+     * {@link PlayerStore} is enabled it is forced to disk, otherwise the
+     * character file directory is forced to disk so that the files renamed
+     * into it survive a crash.
+     *
+     * @throws IOException
+     *             if the store could not be forced to disk.
+     */
+    public static void sync() throws IOException {
+        if (GameConstants.PLAYER_STORE) {
+            store.sync();
+            return;
+        }
+        try (FileChannel directory = FileChannel.open(DIRECTORY, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not every platform allows directories to be synced. The renames
+            // are still atomic, only their durability is left up to the
+            // operating system.
+        }
+    }
+
+    /**
+     * Writes {@code data} to a temporary file and forces it to disk, then
+     * atomically replaces the file at {@code path} with it.
+     *
+     * @param path
+     *            the path of the file to replace.
+     * @param data
+     *            the data to write.
+     * @throws IOException
+     *             if any errors occur while writing the file.
+     */
+    static void write(Path path, byte[] data) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(data);
+            while (buf.hasRemaining())
+                out.write(buf);
+            out.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Gets the values of the tokens of this serializer, keyed on their names.
+     *
+     * @return the values of the tokens.
+     */
+    Map<String, Object> values() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        tokens.forEach(t -> values.put(t.getName(), t.getValue()));
+        return values;
+    }
+
+    /**
+     * Gets the codecs of the tokens of this serializer, keyed on their names.
+     *
+     * @return the codecs of the tokens.
+     */
+    Map<String, TokenCodec<?>> schema() {
+        Map<String, TokenCodec<?>> schema = new LinkedHashMap<>();
+        tokens.forEach(t -> schema.put(t.getName(), t.getCodec()));
+        return schema;
+    }
+
+    /**
+     * Gets the path to the character file of {@code username} in
+     * {@code format}.
+     *
+     * @param username
+     *            the username of the player.
+     * @param format
+     *            the format of the character file.
+     * @return the path to the character file.
+     */
+    static Path getPath(String username, PlayerSerializationFormat format) {
+        return DIRECTORY.resolve(username + "." + format.getExtension());
+    }
+
+    /**
+     * Finds the format that the latest character file of {@code username} is
+     * written in. The player may have a character file in more than one format
+     * if the format was switched, in which case the most recently written one
+     * is preferred, and the {@link GameConstants#SERIALIZATION_FORMAT} if they
+     * were written at the same time.
+     *
+     * @param username
+     *            the username of the player.
+     * @return the format of the character file wrapped in an optional, or an
+     *         empty optional if the player has no character file.
+     */
+    static Optional<PlayerSerializationFormat> find(String username) {
+        PlayerSerializationFormat found = null;
+        long modified = 0;
+        for (PlayerSerializationFormat format : PlayerSerializationFormat.values()) {
+            File file = getPath(username, format).toFile();
+            if (!file.exists())
+                continue;
+            long time = file.lastModified();
+            if (found == null || time > modified || (time == modified && format == GameConstants.SERIALIZATION_FORMAT)) {
+                found = format;
+                modified = time;
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
     /**
      * Gets the cache that will enabled the caching of character files for later
      * use.
@@ -232,13 +453,33 @@ public final class PlayerSerialization {
         return cache;
     }
 
+    /**
+     * Gets the writer that will write character files on a dedicated thread.
+     *
+     * @return the writer for character files.
+     */
+    public static PlayerSerializationWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Gets the store that character files are kept in, if enabled.
+     *
+     * @return the store for character files.
+     */
+    public static PlayerStore getStore() {
+        return store;
+    }
+
     /**
      * The container that represents a token that can be both serialized and
      * deserialized.
      *
      * @author lare96 <http://github.com/lare96>
+     * @param <T>
+     *            the type of value this token holds.
      */
-    private static final class TokenSerializer {
+    private static final class TokenSerializer<T> {
 
         /**
          * The name of this serializable token.
@@ -246,29 +487,47 @@ public final class PlayerSerialization {
         private final String name;
 
         /**
-         * The {@code Object} being serialized by this token.
+         * The value being serialized by this token, and its encoding.
          */
-        private final Object toJson;
+        private final TokenFragment<T> fragment;
 
         /**
          * The deserialization consumer for this token.
          */
-        private final Consumer<JsonElement> fromJson;
+        private final Consumer<T> fromValue;
 
         /**
          * Creates a new {@link TokenSerializer}.
          *
          * @param name
          *            the name of this serializable token.
-         * @param toJson
-         *            the {@code Object} being serialized by this token.
-         * @param fromJson
+         * @param value
+         *            the value being serialized by this token.
+         * @param codec
+         *            the codec that determines the type of this token.
+         * @param fromValue
+         *            the deserialization consumer for this token.
+         */
+        public TokenSerializer(String name, T value, TokenCodec<T> codec, Consumer<T> fromValue) {
+            this(name, new TokenFragment<>(value, codec), fromValue);
+        }
+
+        /**
+         * Creates a new {@link TokenSerializer} for a value that has already
+         * been copied.
+         *
+         * @param name
+         *            the name of this serializable token.
+         * @param fragment
+         *            the value being serialized by this token, and its
+         *            encoding.
+         * @param fromValue
          *            the deserialization consumer for this token.
          */
-        public TokenSerializer(String name, Object toJson, Consumer<JsonElement> fromJson) {
+        public TokenSerializer(String name, TokenFragment<T> fragment, Consumer<T> fromValue) {
             this.name = name;
-            this.toJson = toJson;
-            this.fromJson = fromJson;
+            this.fragment = fragment;
+            this.fromValue = fromValue;
         }
 
         @Override
@@ -292,7 +551,7 @@ public final class PlayerSerialization {
                 return false;
             if (!(obj instanceof TokenSerializer))
                 return false;
-            TokenSerializer other = (TokenSerializer) obj;
+            TokenSerializer<?> other = (TokenSerializer<?>) obj;
             if (name == null) {
                 if (other.name != null)
                     return false;
@@ -301,6 +560,17 @@ public final class PlayerSerialization {
             return true;
         }
 
+        /**
+         * Deserializes {@code value} into the player, by passing it to the
+         * deserialization consumer of this token.
+         *
+         * @param value
+         *            the deserialized value.
+         */
+        public void accept(Object value) {
+            fromValue.accept(fragment.getCodec().getType().cast(value));
+        }
+
         /**
          * Gets the name of this serializable token.
          *
@@ -311,21 +581,30 @@ public final class PlayerSerialization {
         }
 
         /**
-         * Gets the {@code Object} being serialized by this token.
+         * Gets the value being serialized by this token.
+         *
+         * @return the serializable value.
+         */
+        public T getValue() {
+            return fragment.getValue();
+        }
+
+        /**
+         * Gets the codec that determines the type of this token.
          *
-         * @return the serializable object.
+         * @return the codec of this token.
          */
-        public Object getToJson() {
-            return toJson;
+        public TokenCodec<T> getCodec() {
+            return fragment.getCodec();
         }
 
         /**
-         * Gets the deserialization consumer for this token.
+         * Gets the value being serialized by this token, and its encoding.
          *
-         * @return the deserialization consumer.
+         * @return the fragment of this token.
          */
-        public Consumer<JsonElement> getFromJson() {
-            return fromJson;
+        public TokenFragment<T> getFragment() {
+            return fragment;
         }
     }
 }
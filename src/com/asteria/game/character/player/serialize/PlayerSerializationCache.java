@@ -11,7 +11,6 @@ import com.asteria.service.ServiceQueue;
 import com.asteria.utility.LoggerUtils;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.gson.JsonObject;
 
 /**
  * The wrapper for the cache that will store character files on logout for later
@@ -39,7 +38,7 @@ public final class PlayerSerializationCache extends Service {
      * {@link PlayerSerializer}. These character files will be removed from the
      * cache {@code 15} minutes after they've been added to free up memory.
      */
-    private final Cache<Long, JsonObject> cache = CacheBuilder.newBuilder().initialCapacity(100).expireAfterWrite(15, TimeUnit.MINUTES)
+    private final Cache<Long, byte[]> cache = CacheBuilder.newBuilder().initialCapacity(100).expireAfterWrite(15, TimeUnit.MINUTES)
         .concurrencyLevel(2).build();
 
     /**
@@ -92,7 +91,7 @@ public final class PlayerSerializationCache extends Service {
      * @param data
      *            the data for the character file.
      */
-    public void add(long value, JsonObject data) {
+    public void add(long value, byte[] data) {
         cache.put(value, data);
     }
 
@@ -105,7 +104,7 @@ public final class PlayerSerializationCache extends Service {
      * @return the data wrapped in an optional if present, or an empty optional
      *         if not present.
      */
-    public Optional<JsonObject> get(long value) {
+    public Optional<byte[]> get(long value) {
         return Optional.ofNullable(cache.getIfPresent(value));
     }
 
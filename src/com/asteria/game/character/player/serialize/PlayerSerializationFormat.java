@@ -0,0 +1,199 @@
+package com.asteria.game.character.player.serialize;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The formats that character files can be written in. Both formats store
+ * tokens by name, so tokens can be added to or removed from the
+ * {@link PlayerSerialization} without breaking existing character files.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public enum PlayerSerializationFormat {
+
+    /**
+     * The human readable format, where character files are pretty printed
+     * {@code JSON} objects.
+     */
+    JSON("json") {
+        @Override
+        Object encode(TokenCodec<?> codec, Object value) {
+            return GSON.toJsonTree(value);
+        }
+
+        @Override
+        byte[] assemble(Map<String, Object> encoded) {
+            JsonObject obj = new JsonObject();
+            encoded.forEach((name, value) -> obj.add(name, (JsonElement) value));
+            return GSON.toJson(obj).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        Map<String, Object> decode(byte[] data, Map<String, TokenCodec<?>> schema) {
+            JsonObject reader = (JsonObject) new JsonParser().parse(new String(data, StandardCharsets.UTF_8));
+            Map<String, Object> values = new LinkedHashMap<>();
+            schema.forEach((name, codec) -> {
+                if (reader.has(name))
+                    values.put(name, GSON.fromJson(reader.get(name), codec.getType()));
+            });
+            return values;
+        }
+    },
+
+    /**
+     * The compact format, where character files start with a header holding
+     * the schema version, followed by every token as its name and the length
+     * of its value written by its {@link TokenCodec}. Unknown tokens are
+     * skipped when read.
+     */
+    BINARY("dat") {
+        @Override
+        Object encode(TokenCodec<?> codec, Object value) {
+            ByteBuf buf = Unpooled.buffer(64);
+            codec.encode(buf, value);
+            byte[] data = new byte[buf.readableBytes()];
+            buf.readBytes(data);
+            return data;
+        }
+
+        @Override
+        byte[] assemble(Map<String, Object> encoded) {
+            ByteBuf buf = Unpooled.buffer(512);
+            buf.writeInt(MAGIC);
+            TokenCodec.writeVarInt(buf, VERSION);
+            TokenCodec.writeVarInt(buf, encoded.size());
+            encoded.forEach((name, value) -> {
+                byte[] bytes = (byte[]) value;
+                TokenCodec.writeString(buf, name);
+                TokenCodec.writeVarInt(buf, bytes.length);
+                buf.writeBytes(bytes);
+            });
+            byte[] data = new byte[buf.readableBytes()];
+            buf.readBytes(data);
+            return data;
+        }
+
+        @Override
+        Map<String, Object> decode(byte[] data, Map<String, TokenCodec<?>> schema) {
+            ByteBuf buf = Unpooled.wrappedBuffer(data);
+            if (buf.readInt() != MAGIC)
+                throw new IllegalStateException("Not a binary character file!");
+            int version = TokenCodec.readVarInt(buf);
+            if (version > VERSION)
+                throw new IllegalStateException("Unsupported character file version " + version + "!");
+            int amount = TokenCodec.readVarInt(buf);
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < amount; i++) {
+                String name = TokenCodec.readString(buf);
+                ByteBuf value = buf.readSlice(TokenCodec.readVarInt(buf));
+                TokenCodec<?> codec = schema.get(name);
+                if (codec != null)
+                    values.put(name, codec.decode(value));
+            }
+            return values;
+        }
+    };
+
+    /**
+     * The {@link Gson} that {@code JSON} character files are written and read
+     * with. Instances are thread safe, so a single one is shared.
+     */
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().addSerializationExclusionStrategy(
+        new PlayerSerializationFilter()).create();
+
+    /**
+     * The magic number that binary character files start with.
+     */
+    private static final int MAGIC = 0x41535046;
+
+    /**
+     * The current schema version of binary character files. This must be
+     * incremented whenever the way an existing token is written changes.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The extension of character files in this format.
+     */
+    private final String extension;
+
+    /**
+     * Creates a new {@link PlayerSerializationFormat}.
+     *
+     * @param extension
+     *            the extension of character files in this format.
+     */
+    private PlayerSerializationFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Encodes the value of a single token, so that it can be assembled into
+     * character files by {@link #assemble(Map)} as many times as needed.
+     *
+     * @param codec
+     *            the codec of the token.
+     * @param value
+     *            the value of the token.
+     * @return the encoded value.
+     */
+    abstract Object encode(TokenCodec<?> codec, Object value);
+
+    /**
+     * Assembles the encoded values of tokens into the contents of a character
+     * file.
+     *
+     * @param encoded
+     *            the values of the tokens encoded by
+     *            {@link #encode(TokenCodec, Object)}, keyed on their names.
+     * @return the contents of the character file.
+     */
+    abstract byte[] assemble(Map<String, Object> encoded);
+
+    /**
+     * Encodes the values of tokens into the contents of a character file.
+     *
+     * @param values
+     *            the values of the tokens, keyed on their names.
+     * @param schema
+     *            the codecs of the tokens, keyed on their names.
+     * @return the contents of the character file.
+     */
+    final byte[] encode(Map<String, Object> values, Map<String, TokenCodec<?>> schema) {
+        Map<String, Object> encoded = new LinkedHashMap<>();
+        values.forEach((name, value) -> encoded.put(name, encode(schema.get(name), value)));
+        return assemble(encoded);
+    }
+
+    /**
+     * Decodes the values of tokens from the contents of a character file.
+     * Tokens that are not in the schema are discarded.
+     *
+     * @param data
+     *            the contents of the character file.
+     * @param schema
+     *            the codecs of the tokens, keyed on their names.
+     * @return the values of the tokens, keyed on their names.
+     */
+    abstract Map<String, Object> decode(byte[] data, Map<String, TokenCodec<?>> schema);
+
+    /**
+     * Gets the extension of character files in this format.
+     *
+     * @return the extension of character files.
+     */
+    public final String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,91 @@
+package com.asteria.game.character.player.serialize;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The sections of the last character file saved for a player, such as their
+ * inventory, bank and skills. Every section is kept alongside the version it
+ * was copied at, which is built from the modification counts of the data it
+ * was copied from. When a player is saved again, sections whose version has
+ * not changed are reused as they are, so they are neither copied on the game
+ * thread nor encoded again on the writer thread.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class PlayerSerializationFragments {
+
+    /**
+     * The sections of the last character file, keyed on the names of their
+     * tokens.
+     */
+    private final Map<String, Section> sections = new HashMap<>();
+
+    /**
+     * Gets the section with {@code name}, reusing the previous section if it
+     * was copied at the same version or otherwise copying a new section from
+     * {@code value}.
+     *
+     * @param name
+     *            the name of the token of the section.
+     * @param version
+     *            the current version of the data of the section.
+     * @param codec
+     *            the codec that determines the type of the section.
+     * @param value
+     *            the function that copies the data of the section.
+     * @return the fragment of the section.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T> TokenFragment<T> get(String name, Object version, TokenCodec<T> codec, Supplier<T> value) {
+        Section section = sections.get(name);
+        if (section != null && Objects.deepEquals(section.version, version))
+            return (TokenFragment<T>) section.fragment;
+        TokenFragment<T> fragment = new TokenFragment<>(value.get(), codec);
+        sections.put(name, new Section(version, fragment));
+        return fragment;
+    }
+
+    /**
+     * Discards every section, so that every section is copied again the next
+     * time the player is saved. This must be done whenever the data of the
+     * player is replaced without going through its modification counts, such
+     * as when the player is deserialized.
+     */
+    synchronized void clear() {
+        sections.clear();
+    }
+
+    /**
+     * A single section of a character file and the version it was copied at.
+     *
+     * @author lare96 <http://github.com/lare96>
+     */
+    private static final class Section {
+
+        /**
+         * The version of the data the section was copied at.
+         */
+        private final Object version;
+
+        /**
+         * The fragment of the section.
+         */
+        private final TokenFragment<?> fragment;
+
+        /**
+         * Creates a new {@link Section}.
+         *
+         * @param version
+         *            the version of the data the section was copied at.
+         * @param fragment
+         *            the fragment of the section.
+         */
+        public Section(Object version, TokenFragment<?> fragment) {
+            this.version = version;
+            this.fragment = fragment;
+        }
+    }
+}
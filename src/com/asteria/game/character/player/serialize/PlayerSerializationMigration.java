@@ -0,0 +1,154 @@
+package com.asteria.game.character.player.serialize;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.asteria.game.GameConstants;
+import com.asteria.game.character.player.Player;
+import com.asteria.utility.LoggerUtils;
+import com.asteria.utility.TextUtils;
+
+/**
+ * The tool that converts every character file in the character file directory
+ * to a single {@link PlayerSerializationFormat} in bulk, importing them into
+ * the {@link PlayerStore} if it is enabled. Players are saved in the new format
+ * as they login, but their old character files are only ever converted and
+ * removed by this tool.
+ * <p>
+ * <p>
+ * The tool should be ran while the server is offline, with the format to
+ * convert to. The old character files are kept unless {@code --delete} is
+ * given as well. For example
+ * {@code java com.asteria.game.character.player.serialize.PlayerSerializationMigration BINARY --delete}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class PlayerSerializationMigration {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(PlayerSerializationMigration.class);
+
+    /**
+     * The default constructor, will throw an
+     * {@link UnsupportedOperationException} if instantiated.
+     *
+     * @throws UnsupportedOperationException
+     *             if this class is instantiated.
+     */
+    private PlayerSerializationMigration() {
+        throw new UnsupportedOperationException("This class cannot be instantiated!");
+    }
+
+    /**
+     * The main method of this tool.
+     *
+     * @param args
+     *            the format to convert character files to, and optionally
+     *            {@code --delete} to delete the old character files.
+     * @throws Exception
+     *             if any errors occur while reading the character file
+     *             directory.
+     */
+    public static void main(String[] args) throws Exception {
+        boolean delete = args.length == 2 && args[1].equals("--delete");
+        if (args.length != 1 && !delete) {
+            logger.info("Usage: PlayerSerializationMigration <JSON|BINARY> [--delete]");
+            return;
+        }
+        PlayerSerializationFormat to = PlayerSerializationFormat.valueOf(args[0].toUpperCase());
+        Map<String, TokenCodec<?>> schema = new PlayerSerialization(new Player(null)).schema();
+        int converted = 0;
+        int failed = 0;
+        long before = 0;
+        long after = 0;
+        long start = System.nanoTime();
+        PlayerStore store = PlayerSerialization.getStore();
+        List<Path> imported = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(PlayerSerialization.DIRECTORY)) {
+            for (Path file : files) {
+                Optional<PlayerSerializationFormat> from = format(file);
+                if (!from.isPresent() || (from.get() == to && !GameConstants.PLAYER_STORE))
+                    continue;
+                String name = file.getFileName().toString();
+                String username = name.substring(0, name.length() - from.get().getExtension().length() - 1);
+                Path target = PlayerSerialization.getPath(username, to);
+                try {
+                    if (GameConstants.PLAYER_STORE) {
+
+                        // Accounts already in the store have been saved since
+                        // their character file was written, so the character
+                        // file is out of date.
+                        long usernameHash = TextUtils.nameToHash(username);
+                        if (!store.contains(usernameHash)) {
+                            byte[] data = Files.readAllBytes(file);
+                            byte[] encoded = to.encode(from.get().decode(data, schema), schema);
+                            store.put(usernameHash, PlayerSerialization.record(to, encoded));
+                            before += data.length;
+                            after += encoded.length;
+                            converted++;
+                        }
+                        imported.add(file);
+                        continue;
+                    }
+                    if (Files.exists(target) && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(file)) >= 0) {
+
+                        // The character file has already been written in the
+                        // new format since, so the old one is out of date.
+                        if (delete)
+                            Files.delete(file);
+                        continue;
+                    }
+                    byte[] data = Files.readAllBytes(file);
+                    byte[] encoded = to.encode(from.get().decode(data, schema), schema);
+                    PlayerSerialization.write(target, encoded);
+                    if (delete)
+                        Files.delete(file);
+                    before += data.length;
+                    after += encoded.length;
+                    converted++;
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Could not convert " + file + "!", e);
+                    failed++;
+                }
+            }
+        }
+        if (GameConstants.PLAYER_STORE) {
+            store.sync();
+            if (delete) {
+                for (Path file : imported)
+                    Files.delete(file);
+            }
+        }
+        logger.info(String.format("Converted %d character files to %s in %dms, %d failed. %.1fkb -> %.1fkb", converted, to,
+            (System.nanoTime() - start) / 1_000_000, failed, before / 1024.0, after / 1024.0));
+    }
+
+    /**
+     * Determines the format of the character file at {@code file} based on its
+     * extension.
+     *
+     * @param file
+     *            the character file.
+     * @return the format wrapped in an optional, or an empty optional if the
+     *         file is not a character file.
+     */
+    private static Optional<PlayerSerializationFormat> format(Path file) {
+        if (!Files.isRegularFile(file))
+            return Optional.empty();
+        String name = file.getFileName().toString();
+        for (PlayerSerializationFormat format : PlayerSerializationFormat.values()) {
+            if (name.endsWith("." + format.getExtension()))
+                return Optional.of(format);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,413 @@
+package com.asteria.game.character.player.serialize;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.ObjectName;
+
+import com.asteria.game.character.player.Player;
+import com.asteria.utility.LoggerUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The pipeline that writes character files on a dedicated thread. Players
+ * requested to be saved during a sequence are snapshotted on the game thread
+ * once all of the logic for the sequence has been executed, so every snapshot
+ * is consistent without any locking on the hot path. Snapshots are queued per
+ * account, so an account that is saved again while its previous snapshot is
+ * still waiting is only written once, with its latest state. The writer drains
+ * every pending snapshot at once and writes them as a single batch, syncing
+ * the storage once after the whole batch rather than once per account.
+ * <p>
+ * <p>
+ * Every character file is either appended to the {@link PlayerStore}, or
+ * written to a temporary file which is forced to disk before it atomically
+ * replaces the old character file, so a crash can never leave behind a
+ * truncated account. Any saves still pending when the server shuts down are
+ * written before the process exits.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class PlayerSerializationWriter implements PlayerSerializationWriterMBean, Runnable {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(PlayerSerializationWriter.class);
+
+    /**
+     * The amount of save latencies kept for percentile calculations.
+     */
+    private static final int SAMPLES = 1000;
+
+    /**
+     * The amount of seconds pending saves are given to be written when the
+     * server shuts down.
+     */
+    private static final int SHUTDOWN_TIMEOUT = 30;
+
+    /**
+     * The map of username hashes to the players that have requested to be
+     * saved, but have not been snapshotted yet.
+     */
+    private final Map<Long, Player> requested = new LinkedHashMap<>();
+
+    /**
+     * The map of username hashes to the snapshots waiting to be written, in
+     * the order they were requested.
+     */
+    private final Map<Long, PendingSave> pending = new LinkedHashMap<>();
+
+    /**
+     * The username hashes of the saves currently being written.
+     */
+    private final Set<Long> writing = new HashSet<>();
+
+    /**
+     * The ring buffer of recorded save latencies.
+     */
+    private final long[] samples = new long[SAMPLES];
+
+    /**
+     * The index the next save latency will be recorded at.
+     */
+    private int index;
+
+    /**
+     * The amount of save latencies currently in the ring buffer.
+     */
+    private int size;
+
+    /**
+     * The amount of character files that have been written.
+     */
+    private long saves;
+
+    /**
+     * The amount of save requests that were merged into a pending request or
+     * snapshot.
+     */
+    private long coalesced;
+
+    /**
+     * The amount of character files that could not be written.
+     */
+    private long failures;
+
+    /**
+     * The thread that writes character files, or {@code null} if it has not
+     * been started yet.
+     */
+    private volatile Thread thread;
+
+    /**
+     * Starts the writer thread, and registers the hook that snapshots every
+     * outstanding save request and writes all pending saves when the server
+     * shuts down.
+     *
+     * @throws IllegalStateException
+     *             if the writer has already been started.
+     */
+    public synchronized void start() {
+        Preconditions.checkState(thread == null, "The player serialization writer has already been started.");
+        thread = new ThreadFactoryBuilder().setNameFormat("PlayerSerializationThread").setDaemon(true).build().newThread(this);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+
+            // Saves requested during the last sequence may not have been
+            // snapshotted by the game thread, they would be lost otherwise.
+            snapshot();
+            if (!flush(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS))
+                logger.severe("Not all character files could be written before shutdown!");
+        }));
+    }
+
+    /**
+     * Registers this writer with the platform MBean server, so that it may be
+     * monitored over JMX.
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                new ObjectName("com.asteria:type=PlayerSerializationWriter"));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not register the player serialization writer MBean!", e);
+        }
+    }
+
+    /**
+     * Requests the character file of {@code player} to be written, once the
+     * player is snapshotted at the end of the current sequence. If the writer
+     * has not been started the character file is written on the calling thread
+     * instead. This should only be invoked by the game thread.
+     *
+     * @param player
+     *            the player to save.
+     */
+    public void submit(Player player) {
+        if (thread == null) {
+            try {
+                if (new PlayerSerialization(player).serialize())
+                    PlayerSerialization.sync();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Could not sync the character file of " + player + "!", e);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (requested.putIfAbsent(player.getUsernameHash(), player) != null)
+                coalesced++;
+        }
+    }
+
+    /**
+     * Snapshots every player that has requested to be saved, and queues the
+     * snapshots to be written. A snapshot replaces any older snapshot of the
+     * same account that is still waiting. This should only be invoked by the
+     * game thread, once all of the logic for the current sequence has been
+     * executed, or by the shutdown hook once nothing else will be saved.
+     */
+    public synchronized void snapshot() {
+        if (requested.isEmpty())
+            return;
+        long now = System.nanoTime();
+        for (Player player : requested.values()) {
+            long usernameHash = player.getUsernameHash();
+            try {
+                PlayerSerialization snapshot = new PlayerSerialization(player);
+                PendingSave previous = pending.get(usernameHash);
+                if (previous != null)
+                    coalesced++;
+                pending.put(usernameHash, new PendingSave(usernameHash, snapshot, previous == null ? now : previous.snapshotted));
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Could not snapshot " + player + " to be saved!", e);
+                failures++;
+            }
+        }
+        requested.clear();
+        notifyAll();
+    }
+
+    /**
+     * Blocks the calling thread until no save is requested, pending or being
+     * written for the account with {@code usernameHash}, so that the character
+     * file can be read back without losing any progress.
+     *
+     * @param usernameHash
+     *            the username hash of the account.
+     */
+    public synchronized void await(long usernameHash) {
+        try {
+            while (requested.containsKey(usernameHash) || pending.containsKey(usernameHash) || writing.contains(usernameHash))
+                wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks the calling thread until all pending snapshots have been written,
+     * or until the timeout elapses. Players that have requested to be saved
+     * but have not been snapshotted yet are not waited for.
+     *
+     * @param timeout
+     *            the maximum amount of time to wait.
+     * @param unit
+     *            the unit of the timeout.
+     * @return {@code true} if all pending saves were written, {@code false}
+     *         if the timeout elapsed or the calling thread was interrupted.
+     */
+    public synchronized boolean flush(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            while (!pending.isEmpty() || !writing.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return false;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * <p>
+     * This method should <b>never</b> be invoked unless by the writer thread
+     * created in {@link PlayerSerializationWriter#start()}.
+     */
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingSave> batch;
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty())
+                        wait();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                writing.addAll(pending.keySet());
+                pending.clear();
+            }
+            write(batch);
+        }
+    }
+
+    /**
+     * Writes the character files of {@code batch}, then syncs the storage so
+     * that every written character file is durable.
+     *
+     * @param batch
+     *            the saves to write.
+     */
+    private void write(List<PendingSave> batch) {
+        boolean[] written = new boolean[batch.size()];
+        try {
+            for (int i = 0; i < batch.size(); i++)
+                written[i] = batch.get(i).snapshot.serialize();
+            PlayerSerialization.sync();
+        } catch (Throwable t) {
+            logger.log(Level.SEVERE, "An error has occured while writing character files!", t);
+            Arrays.fill(written, false);
+        } finally {
+            long now = System.nanoTime();
+            synchronized (this) {
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingSave save = batch.get(i);
+                    if (written[i]) {
+                        saves++;
+                        record(now - save.snapshotted);
+                    } else {
+                        failures++;
+                    }
+                    writing.remove(save.usernameHash);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Records the latency of a save, replacing the oldest latency if the ring
+     * buffer is full. This should only be invoked while holding the lock of
+     * this writer.
+     *
+     * @param latency
+     *            the latency to record.
+     */
+    private void record(long latency) {
+        samples[index] = latency;
+        index = (index + 1) % samples.length;
+        if (size < samples.length)
+            size++;
+    }
+
+    /**
+     * Gets the value at {@code percentile} of the recorded save latencies.
+     *
+     * @param percentile
+     *            the percentile to get.
+     * @return the latency at the percentile.
+     */
+    private synchronized long latency(int percentile) {
+        if (size == 0)
+            return 0;
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return requested.size() + pending.size() + writing.size();
+    }
+
+    @Override
+    public synchronized long getSaves() {
+        return saves;
+    }
+
+    @Override
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    @Override
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    @Override
+    public long getLatencyP50() {
+        return latency(50);
+    }
+
+    @Override
+    public long getLatencyP99() {
+        return latency(99);
+    }
+
+    @Override
+    public long getLatencyMax() {
+        return latency(100);
+    }
+
+    /**
+     * A snapshot of a player that is waiting to be written.
+     *
+     * @author lare96 <http://github.com/lare96>
+     */
+    private static final class PendingSave {
+
+        /**
+         * The username hash of the snapshotted player.
+         */
+        private final long usernameHash;
+
+        /**
+         * The snapshot of the player to write.
+         */
+        private final PlayerSerialization snapshot;
+
+        /**
+         * The time in nanoseconds the account was first snapshotted since it
+         * was last written.
+         */
+        private final long snapshotted;
+
+        /**
+         * Creates a new {@link PendingSave}.
+         *
+         * @param usernameHash
+         *            the username hash of the snapshotted player.
+         * @param snapshot
+         *            the snapshot of the player to write.
+         * @param snapshotted
+         *            the time in nanoseconds the account was first snapshotted
+         *            since it was last written.
+         */
+        public PendingSave(long usernameHash, PlayerSerialization snapshot, long snapshotted) {
+            this.usernameHash = usernameHash;
+            this.snapshot = snapshot;
+            this.snapshotted = snapshotted;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.asteria.game.character.player.serialize;
+
+/**
+ * The management interface for the {@link PlayerSerializationWriter},
+ * exposing the state of the save queue over JMX. All durations are in
+ * nanoseconds.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public interface PlayerSerializationWriterMBean {
+
+    /**
+     * Gets the amount of character files waiting to be written.
+     *
+     * @return the amount of pending saves.
+     */
+    public int getQueueDepth();
+
+    /**
+     * Gets the amount of character files that have been written.
+     *
+     * @return the amount of completed saves.
+     */
+    public long getSaves();
+
+    /**
+     * Gets the amount of save requests that were merged into a save that was
+     * already pending.
+     *
+     * @return the amount of coalesced saves.
+     */
+    public long getCoalesced();
+
+    /**
+     * Gets the amount of character files that could not be written.
+     *
+     * @return the amount of failed saves.
+     */
+    public long getFailures();
+
+    /**
+     * Gets the median time taken from a player being snapshotted until
+     * their character file is durable.
+     *
+     * @return the median save latency.
+     */
+    public long getLatencyP50();
+
+    /**
+     * Gets the 99th percentile time taken from a player being snapshotted
+     * until their character file is durable.
+     *
+     * @return the 99th percentile save latency.
+     */
+    public long getLatencyP99();
+
+    /**
+     * Gets the maximum time taken from a player being snapshotted until
+     * their character file is durable.
+     *
+     * @return the maximum save latency.
+     */
+    public long getLatencyMax();
+}
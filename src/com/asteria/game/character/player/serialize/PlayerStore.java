@@ -0,0 +1,548 @@
+package com.asteria.game.character.player.serialize;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.asteria.utility.LoggerUtils;
+
+/**
+ * The embedded store that keeps every character file in a single append-only
+ * file, rather than in a file per account. Every save appends a new record
+ * for the account, and an in-memory index of username hashes to the position
+ * of their latest record makes every read a single positioned read.
+ * <p>
+ * <p>
+ * Records that have been superseded are left in the file until enough space
+ * is wasted, at which point the store is compacted by copying only the latest
+ * records into a new file that atomically replaces the old one. Every record
+ * is checksummed, so when the store is opened after a crash, a partially
+ * written record at the end of the file is detected and discarded. A damaged
+ * record anywhere else in the file is never discarded, the store instead
+ * refuses to open so that no later record is lost.
+ * <p>
+ * <p>
+ * The functions within this class are thread safe, but the store expects to
+ * only be written to by the {@link PlayerSerializationWriter}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class PlayerStore {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(PlayerStore.class);
+
+    /**
+     * The size of the header of every record, holding the length of the
+     * record data, the username hash and the checksum.
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * The size in bytes the store must reach before it is ever compacted.
+     */
+    private static final long MINIMUM_COMPACTION_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The maximum size in bytes of the data of a single record.
+     */
+    private static final int MAXIMUM_RECORD_SIZE = 1024 * 1024;
+
+    /**
+     * The path to the file that backs this store.
+     */
+    private final Path path;
+
+    /**
+     * The index of username hashes to the latest record of every account.
+     */
+    private final Map<Long, Record> index = new HashMap<>();
+
+    /**
+     * The lock held while this store is compacted, so that only one
+     * compaction runs at a time.
+     */
+    private final Object compaction = new Object();
+
+    /**
+     * The channel to the file that backs this store, or {@code null} if the
+     * store has not been opened yet.
+     */
+    private FileChannel channel;
+
+    /**
+     * The size in bytes of the file that backs this store.
+     */
+    private long size;
+
+    /**
+     * The size in bytes of the latest records of every account.
+     */
+    private long live;
+
+    /**
+     * Creates a new {@link PlayerStore}.
+     *
+     * @param path
+     *            the path to the file that backs this store.
+     */
+    public PlayerStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates a new {@link PlayerStore} backed by {@code ./data/players.db}.
+     */
+    public PlayerStore() {
+        this(Paths.get("./data/players.db"));
+    }
+
+    /**
+     * Opens this store if it has not been opened yet, building the index from
+     * the file that backs it and discarding the last record if it was not
+     * written completely.
+     *
+     * @throws IOException
+     *             if the file that backs this store could not be opened, or
+     *             holds a damaged record before its last record.
+     */
+    public synchronized void open() throws IOException {
+        if (channel != null)
+            return;
+        long start = System.nanoTime();
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = opened.size();
+            size = recover(length);
+            if (size < length) {
+                logger.warning("Discarding " + (length - size) + " bytes of incomplete records at the end of " + path + "!");
+                opened.truncate(size);
+                opened.force(true);
+            }
+        } catch (IOException e) {
+            opened.close();
+            index.clear();
+            live = 0;
+            throw e;
+        }
+        channel = opened;
+        logger.info("Loaded " + index.size() + " accounts from " + path + " in " + (System.nanoTime() - start) / 1_000_000
+            + "ms.");
+    }
+
+    /**
+     * Builds the index by reading every record from the start of the file that
+     * backs this store, until the end of the file or a record that was not
+     * written completely is reached. A record was not written completely if
+     * it runs past the end of the file, or if it is damaged and nothing but
+     * zeroes follow it.
+     *
+     * @param length
+     *            the length of the file that backs this store.
+     * @return the position after the last complete record.
+     * @throws IOException
+     *             if the file that backs this store could not be read, or
+     *             holds a damaged record before its last record.
+     */
+    private long recover(long length) throws IOException {
+        long position = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (length - position >= HEADER_SIZE) {
+                int dataLength = in.readInt();
+                long usernameHash = in.readLong();
+                int checksum = in.readInt();
+                if (dataLength < 0 || dataLength > MAXIMUM_RECORD_SIZE) {
+                    if (zeroed(position, length))
+                        break;
+                    throw new IOException("Damaged record header at position " + position + " of " + path + "!");
+                }
+                if (length - position - HEADER_SIZE < dataLength)
+                    break;
+                byte[] data = new byte[dataLength];
+                in.readFully(data);
+                if (checksum != checksum(crc, usernameHash, data)) {
+                    if (position + HEADER_SIZE + dataLength == length || zeroed(position, length))
+                        break;
+                    throw new IOException("Damaged record at position " + position + " of " + path + "!");
+                }
+                index(usernameHash, new Record(position, dataLength));
+                position += HEADER_SIZE + dataLength;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Determines if every byte from {@code position} to the end of the file
+     * that backs this store is zero, which is how a file may be left when it
+     * was extended but not written to before a crash.
+     *
+     * @param position
+     *            the position to start checking from.
+     * @param length
+     *            the length of the file that backs this store.
+     * @return {@code true} if every byte is zero, {@code false} otherwise.
+     * @throws IOException
+     *             if the file that backs this store could not be read.
+     */
+    private boolean zeroed(long position, long length) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            while (position < length) {
+                buf.clear();
+                int read = in.read(buf, position);
+                if (read < 0)
+                    break;
+                for (int i = 0; i < read; i++) {
+                    if (buf.get(i) != 0)
+                        return false;
+                }
+                position += read;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the latest record of the account with {@code usernameHash}.
+     *
+     * @param usernameHash
+     *            the username hash of the account.
+     * @return the data of the record wrapped in an optional, or an empty
+     *         optional if the account has no record.
+     * @throws IOException
+     *             if the record could not be read.
+     */
+    public synchronized Optional<byte[]> get(long usernameHash) throws IOException {
+        open();
+        Record record = index.get(usernameHash);
+        if (record == null)
+            return Optional.empty();
+        ByteBuffer buf = ByteBuffer.allocate(record.length);
+        read(channel, buf, record.position + HEADER_SIZE);
+        return Optional.of(buf.array());
+    }
+
+    /**
+     * Appends a new record for the account with {@code usernameHash},
+     * superseding its previous record. The record is not guaranteed to be on
+     * disk until {@link #sync()} is invoked.
+     *
+     * @param usernameHash
+     *            the username hash of the account.
+     * @param data
+     *            the data of the record.
+     * @throws IOException
+     *             if the record could not be written.
+     * @throws IllegalArgumentException
+     *             if the record is larger than the maximum record size.
+     */
+    public synchronized void put(long usernameHash, byte[] data) throws IOException {
+        if (data.length > MAXIMUM_RECORD_SIZE)
+            throw new IllegalArgumentException("Record of " + data.length + " bytes is too large!");
+        open();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + data.length);
+        buf.putInt(data.length);
+        buf.putLong(usernameHash);
+        buf.putInt(checksum(new CRC32(), usernameHash, data));
+        buf.put(data);
+        buf.flip();
+        try {
+            write(channel, buf, size);
+        } catch (IOException e) {
+
+            // Cut off whatever part of the record was written, so that the
+            // next record is not appended after garbage.
+            channel.truncate(size);
+            throw e;
+        }
+        index(usernameHash, new Record(size, data.length));
+        size += HEADER_SIZE + data.length;
+    }
+
+    /**
+     * Forces every appended record to disk, then compacts this store if more
+     * than half of it is taken up by superseded records.
+     *
+     * @throws IOException
+     *             if the store could not be forced to disk or compacted.
+     */
+    public void sync() throws IOException {
+        synchronized (this) {
+            if (channel == null)
+                return;
+            channel.force(false);
+            if (size < MINIMUM_COMPACTION_SIZE || size - live <= live)
+                return;
+        }
+        compact();
+    }
+
+    /**
+     * Copies the latest record of every account into a new file, which then
+     * atomically replaces the file that backs this store. The records that
+     * exist when the compaction starts are copied without holding the lock on
+     * this store, so reads and writes are only blocked while the records
+     * appended since then are copied and the files are swapped.
+     *
+     * @throws IOException
+     *             if the store could not be compacted.
+     */
+    public void compact() throws IOException {
+        synchronized (compaction) {
+            long start = System.nanoTime();
+            FileChannel source;
+            long before;
+            Map<Long, Record> snapshot;
+            synchronized (this) {
+                open();
+                source = channel;
+                before = size;
+                snapshot = new HashMap<>(index);
+            }
+
+            // Records before the snapshot are never written to again, so they
+            // can be read while saves are appended after them.
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Map<Long, Record> compacted = new HashMap<>(snapshot.size());
+            FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            long position;
+            try {
+                position = copy(source, out, new ArrayList<>(snapshot.entrySet()), 0, compacted);
+            } catch (IOException e) {
+                out.close();
+                throw e;
+            }
+            long after;
+            synchronized (this) {
+                try {
+                    List<Map.Entry<Long, Record>> appended = new ArrayList<>();
+                    for (Map.Entry<Long, Record> entry : index.entrySet()) {
+                        if (entry.getValue().position >= before)
+                            appended.add(entry);
+                    }
+                    copy(channel, out, appended, position, compacted);
+                    out.force(true);
+                } finally {
+                    out.close();
+                }
+                channel.close();
+                boolean replaced = false;
+                try {
+                    try {
+                        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    replaced = true;
+                    try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+                        directory.force(true);
+                    } catch (IOException e) {
+                        // Not every platform allows directories to be synced.
+                        // The move is still atomic, only its durability is
+                        // left up to the operating system.
+                    }
+                } finally {
+
+                    // Reopen whichever file is now in place, the index is only
+                    // replaced if the compacted file is.
+                    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    size = channel.size();
+                    if (replaced) {
+                        index.clear();
+                        index.putAll(compacted);
+                    }
+                }
+                after = size;
+            }
+            logger.info("Compacted " + path + " from " + before / 1024 + "kb to " + after / 1024 + "kb in "
+                + (System.nanoTime() - start) / 1_000_000 + "ms.");
+        }
+    }
+
+    /**
+     * Copies {@code records} from {@code in} to {@code out} in the order they
+     * appear in {@code in}, adding their new positions to {@code compacted}.
+     *
+     * @param in
+     *            the channel to copy the records from.
+     * @param out
+     *            the channel to copy the records to.
+     * @param records
+     *            the records to copy, by username hash.
+     * @param position
+     *            the position in {@code out} to copy the first record to.
+     * @param compacted
+     *            the index of the records copied to {@code out}.
+     * @return the position after the last copied record.
+     * @throws IOException
+     *             if any of the records could not be copied.
+     */
+    private long copy(FileChannel in, FileChannel out, List<Map.Entry<Long, Record>> records, long position,
+        Map<Long, Record> compacted) throws IOException {
+        records.sort(Comparator.comparingLong(e -> e.getValue().position));
+        for (Map.Entry<Long, Record> entry : records) {
+            Record record = entry.getValue();
+            ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + record.length);
+            read(in, buf, record.position);
+            buf.flip();
+            write(out, buf, position);
+            compacted.put(entry.getKey(), new Record(position, record.length));
+            position += HEADER_SIZE + record.length;
+        }
+        return position;
+    }
+
+    /**
+     * Determines if this store has a record for the account with
+     * {@code usernameHash}.
+     *
+     * @param usernameHash
+     *            the username hash of the account.
+     * @return {@code true} if the account has a record, {@code false}
+     *         otherwise.
+     * @throws IOException
+     *             if the store could not be opened.
+     */
+    public synchronized boolean contains(long usernameHash) throws IOException {
+        open();
+        return index.containsKey(usernameHash);
+    }
+
+    /**
+     * Gets the amount of accounts in this store.
+     *
+     * @return the amount of accounts.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Adds {@code record} to the index, replacing the previous record of the
+     * account with {@code usernameHash}.
+     *
+     * @param usernameHash
+     *            the username hash of the account.
+     * @param record
+     *            the record to add.
+     */
+    private void index(long usernameHash, Record record) {
+        Record previous = index.put(usernameHash, record);
+        if (previous != null)
+            live -= HEADER_SIZE + previous.length;
+        live += HEADER_SIZE + record.length;
+    }
+
+    /**
+     * Fills {@code buf} with the bytes at {@code position} in {@code in}.
+     *
+     * @param in
+     *            the channel to read from.
+     * @param buf
+     *            the buffer to fill.
+     * @param position
+     *            the position to read from.
+     * @throws IOException
+     *             if the end of the file is reached, or the file could not be
+     *             read.
+     */
+    private void read(FileChannel in, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int read = in.read(buf, position);
+            if (read < 0)
+                throw new EOFException("Unexpected end of " + path + "!");
+            position += read;
+        }
+    }
+
+    /**
+     * Writes every remaining byte in {@code buf} at {@code position} in
+     * {@code out}.
+     *
+     * @param out
+     *            the channel to write to.
+     * @param buf
+     *            the buffer to write.
+     * @param position
+     *            the position to write at.
+     * @throws IOException
+     *             if the channel could not be written to.
+     */
+    private static void write(FileChannel out, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining())
+            position += out.write(buf, position);
+    }
+
+    /**
+     * Calculates the checksum of a record.
+     *
+     * @param crc
+     *            the checksum calculator to use.
+     * @param usernameHash
+     *            the username hash of the record.
+     * @param data
+     *            the data of the record.
+     * @return the checksum of the record.
+     */
+    private static int checksum(CRC32 crc, long usernameHash, byte[] data) {
+        crc.reset();
+        for (int shift = 56; shift >= 0; shift -= 8)
+            crc.update((int) (usernameHash >>> shift));
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The position and length of a record in the file that backs a store.
+     *
+     * @author lare96 <http://github.com/lare96>
+     */
+    private static final class Record {
+
+        /**
+         * The position of the header of this record.
+         */
+        private final long position;
+
+        /**
+         * The length of the data of this record.
+         */
+        private final int length;
+
+        /**
+         * Creates a new {@link Record}.
+         *
+         * @param position
+         *            the position of the header of this record.
+         * @param length
+         *            the length of the data of this record.
+         */
+        public Record(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.asteria.game.character.player.serialize;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.asteria.game.character.player.skill.Skill;
+import com.asteria.game.item.Item;
+import com.asteria.game.location.Position;
+
+/**
+ * The codec that determines the type of a serializable token, and how its
+ * value is written to and read from binary character files. Numbers are
+ * written as variable length integers so that small values, which are the vast
+ * majority, only take up a single byte.
+ *
+ * @author lare96 <http://github.com/lare96>
+ * @param <T>
+ *            the type of value this codec is for.
+ */
+final class TokenCodec<T> {
+
+    /**
+     * The codec for strings, written as their length followed by their
+     * {@code UTF-8} bytes.
+     */
+    static final TokenCodec<String> STRING = new TokenCodec<>(String.class, TokenCodec::writeString, TokenCodec::readString);
+
+    /**
+     * The codec for integers.
+     */
+    static final TokenCodec<Integer> INTEGER = new TokenCodec<>(Integer.class, TokenCodec::writeSignedVarInt,
+        TokenCodec::readSignedVarInt);
+
+    /**
+     * The codec for booleans, written as a single byte.
+     */
+    static final TokenCodec<Boolean> BOOLEAN = new TokenCodec<>(Boolean.class, ByteBuf::writeBoolean, ByteBuf::readBoolean);
+
+    /**
+     * The codec for positions, written as their coordinates.
+     */
+    static final TokenCodec<Position> POSITION = new TokenCodec<>(Position.class, (buf, position) -> {
+        writeVarInt(buf, position.getX());
+        writeVarInt(buf, position.getY());
+        writeVarInt(buf, position.getZ());
+    }, buf -> new Position(readVarInt(buf), readVarInt(buf), readVarInt(buf)));
+
+    /**
+     * The codec for arrays of integers.
+     */
+    static final TokenCodec<int[]> INTEGER_ARRAY = new TokenCodec<>(int[].class, (buf, values) -> {
+        writeVarInt(buf, values.length);
+        for (int value : values)
+            writeSignedVarInt(buf, value);
+    }, buf -> {
+        int[] values = new int[readVarInt(buf)];
+        for (int i = 0; i < values.length; i++)
+            values[i] = readSignedVarInt(buf);
+        return values;
+    });
+
+    /**
+     * The codec for arrays of longs, written as eight bytes each because
+     * username hashes rarely fit in fewer.
+     */
+    static final TokenCodec<Long[]> LONG_ARRAY = new TokenCodec<>(Long[].class, (buf, values) -> {
+        writeVarInt(buf, values.length);
+        for (Long value : values)
+            buf.writeLong(value);
+    }, buf -> {
+        Long[] values = new Long[readVarInt(buf)];
+        for (int i = 0; i < values.length; i++)
+            values[i] = buf.readLong();
+        return values;
+    });
+
+    /**
+     * The codec for item containers. Only occupied slots are written, as the
+     * slot followed by the identifier and amount of the item, so that mostly
+     * empty containers such as banks stay small.
+     */
+    static final TokenCodec<Item[]> ITEM_ARRAY = new TokenCodec<>(Item[].class, (buf, items) -> {
+        writeVarInt(buf, items.length);
+        int amount = 0;
+        for (Item item : items) {
+            if (item != null)
+                amount++;
+        }
+        writeVarInt(buf, amount);
+        for (int slot = 0; slot < items.length; slot++) {
+            if (items[slot] == null)
+                continue;
+            writeVarInt(buf, slot);
+            writeVarInt(buf, items[slot].getId());
+            writeVarInt(buf, items[slot].getAmount());
+        }
+    }, buf -> {
+        Item[] items = new Item[readVarInt(buf)];
+        int amount = readVarInt(buf);
+        for (int i = 0; i < amount; i++)
+            items[readVarInt(buf)] = new Item(readVarInt(buf), readVarInt(buf));
+        return items;
+    });
+
+    /**
+     * The codec for skills, written as an array of levels followed by an
+     * array of real levels and an array of experience.
+     */
+    static final TokenCodec<Skill[]> SKILL_ARRAY = new TokenCodec<>(Skill[].class, (buf, skills) -> {
+        writeVarInt(buf, skills.length);
+        for (Skill skill : skills)
+            writeVarInt(buf, skill.getLevel());
+        for (Skill skill : skills)
+            writeVarInt(buf, skill.getRealLevel());
+        for (Skill skill : skills)
+            buf.writeDouble(skill.getExperience());
+    }, buf -> {
+        int[] levels = new int[readVarInt(buf)];
+        int[] realLevels = new int[levels.length];
+        for (int i = 0; i < levels.length; i++)
+            levels[i] = readVarInt(buf);
+        for (int i = 0; i < realLevels.length; i++)
+            realLevels[i] = readVarInt(buf);
+        Skill[] skills = new Skill[levels.length];
+        for (int i = 0; i < skills.length; i++)
+            skills[i] = new Skill(levels[i], buf.readDouble(), realLevels[i]);
+        return skills;
+    });
+
+    /**
+     * The type of value this codec is for.
+     */
+    private final Class<T> type;
+
+    /**
+     * The function that writes values to a buffer.
+     */
+    private final BiConsumer<ByteBuf, T> encoder;
+
+    /**
+     * The function that reads values from a buffer.
+     */
+    private final Function<ByteBuf, T> decoder;
+
+    /**
+     * Creates a new {@link TokenCodec}.
+     *
+     * @param type
+     *            the type of value this codec is for.
+     * @param encoder
+     *            the function that writes values to a buffer.
+     * @param decoder
+     *            the function that reads values from a buffer.
+     */
+    private TokenCodec(Class<T> type, BiConsumer<ByteBuf, T> encoder, Function<ByteBuf, T> decoder) {
+        this.type = type;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Writes {@code value} to {@code buf}.
+     *
+     * @param buf
+     *            the buffer to write the value to.
+     * @param value
+     *            the value to write.
+     * @throws ClassCastException
+     *             if the value is not of the type of this codec.
+     */
+    public void encode(ByteBuf buf, Object value) {
+        encoder.accept(buf, type.cast(value));
+    }
+
+    /**
+     * Reads a value from {@code buf}.
+     *
+     * @param buf
+     *            the buffer to read the value from.
+     * @return the value that was read.
+     */
+    public T decode(ByteBuf buf) {
+        return decoder.apply(buf);
+    }
+
+    /**
+     * Gets the type of value this codec is for.
+     *
+     * @return the type of value.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Writes {@code value} to {@code buf} as an unsigned variable length
+     * integer, seven bits at a time.
+     *
+     * @param buf
+     *            the buffer to write the value to.
+     * @param value
+     *            the value to write.
+     */
+    static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    /**
+     * Reads an unsigned variable length integer from {@code buf}.
+     *
+     * @param buf
+     *            the buffer to read the value from.
+     * @return the value that was read.
+     * @throws IllegalStateException
+     *             if the value is longer than five bytes.
+     */
+    static int readVarInt(ByteBuf buf) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buf.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalStateException("Malformed variable length integer!");
+    }
+
+    /**
+     * Writes {@code value} to {@code buf} as a zig-zag encoded variable length
+     * integer, so that small negative values are also written in a single
+     * byte.
+     *
+     * @param buf
+     *            the buffer to write the value to.
+     * @param value
+     *            the value to write.
+     */
+    static void writeSignedVarInt(ByteBuf buf, int value) {
+        writeVarInt(buf, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads a zig-zag encoded variable length integer from {@code buf}.
+     *
+     * @param buf
+     *            the buffer to read the value from.
+     * @return the value that was read.
+     */
+    static int readSignedVarInt(ByteBuf buf) {
+        int value = readVarInt(buf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes {@code value} to {@code buf} as its length followed by its
+     * {@code UTF-8} bytes.
+     *
+     * @param buf
+     *            the buffer to write the value to.
+     * @param value
+     *            the value to write.
+     */
+    static void writeString(ByteBuf buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buf, bytes.length);
+        buf.writeBytes(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(ByteBuf, String)} from
+     * {@code buf}.
+     *
+     * @param buf
+     *            the buffer to read the value from.
+     * @return the value that was read.
+     */
+    static String readString(ByteBuf buf) {
+        byte[] bytes = new byte[readVarInt(buf)];
+        buf.readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
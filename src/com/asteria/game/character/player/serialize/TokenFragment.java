@@ -0,0 +1,82 @@
+package com.asteria.game.character.player.serialize;
+
+/**
+ * The value of a serializable token together with its encoding. Values held
+ * by fragments are never modified, so a fragment can be shared by every
+ * snapshot of a player taken while the value stays the same, and is only
+ * encoded the first time it is written.
+ *
+ * @author lare96 <http://github.com/lare96>
+ * @param <T>
+ *            the type of value this fragment holds.
+ */
+final class TokenFragment<T> {
+
+    /**
+     * The value held by this fragment.
+     */
+    private final T value;
+
+    /**
+     * The codec that determines the type of the value.
+     */
+    private final TokenCodec<T> codec;
+
+    /**
+     * The format the value was last encoded in, or {@code null} if it has not
+     * been encoded yet.
+     */
+    private PlayerSerializationFormat format;
+
+    /**
+     * The value encoded in {@link #format}.
+     */
+    private Object encoded;
+
+    /**
+     * Creates a new {@link TokenFragment}.
+     *
+     * @param value
+     *            the value held by this fragment.
+     * @param codec
+     *            the codec that determines the type of the value.
+     */
+    TokenFragment(T value, TokenCodec<T> codec) {
+        this.value = value;
+        this.codec = codec;
+    }
+
+    /**
+     * Encodes the value held by this fragment in {@code format}, or returns
+     * the previous encoding if it was already encoded in that format.
+     *
+     * @param format
+     *            the format to encode the value in.
+     * @return the encoded value.
+     */
+    synchronized Object encode(PlayerSerializationFormat format) {
+        if (this.format != format) {
+            encoded = format.encode(codec, value);
+            this.format = format;
+        }
+        return encoded;
+    }
+
+    /**
+     * Gets the value held by this fragment.
+     *
+     * @return the value.
+     */
+    T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the codec that determines the type of the value.
+     *
+     * @return the codec of the value.
+     */
+    TokenCodec<T> getCodec() {
+        return codec;
+    }
+}
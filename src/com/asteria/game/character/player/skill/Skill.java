@@ -28,6 +28,35 @@ public final class Skill {
      */
     private int realLevel = 1;
 
+    /**
+     * The amount of times the level, experience or real level of this skill
+     * have been modified.
+     */
+    private int modifications;
+
+    /**
+     * Creates a new {@link Skill} with the lowest level and no experience.
+     */
+    public Skill() {
+
+    }
+
+    /**
+     * Creates a new {@link Skill}.
+     *
+     * @param level
+     *            the level of this skill.
+     * @param experience
+     *            the experience of this skill.
+     * @param realLevel
+     *            the real level of this skill.
+     */
+    public Skill(int level, double experience, int realLevel) {
+        this.level = level;
+        this.experience = experience;
+        this.realLevel = realLevel;
+    }
+
     /**
      * Gets the level based on the experience the player has.
      *
@@ -45,14 +74,23 @@ public final class Skill {
             points += Math.floor(lvl + 300.0 * Math.pow(2.0, lvl / 7.0));
             output = (int) Math.floor(points / 4);
             if (output >= this.getExperience()) {
-                realLevel = lvl;
+                setRealLevel(lvl);
                 return lvl;
             }
         }
-        realLevel = 99;
+        setRealLevel(99);
         return 99;
     }
 
+    /**
+     * Creates a copy of this skill, with the same level and experience.
+     *
+     * @return the copy of this skill.
+     */
+    public Skill copy() {
+        return new Skill(level, experience, realLevel);
+    }
+
     /**
      * Determines if your level is greater than or equal to {@code level}.
      *
@@ -106,11 +144,7 @@ public final class Skill {
      *            the maximum level to increase this to.
      */
     public void increaseLevel(int amount, int maximum) {
-        if ((level + amount) > maximum) {
-            level = maximum;
-            return;
-        }
-        level += amount;
+        modifyLevel((level + amount) > maximum ? maximum : level + amount);
     }
 
     /**
@@ -130,11 +164,20 @@ public final class Skill {
      *            the amount to decrease this level by.
      */
     public void decreaseLevel(int amount, int minimum) {
-        if ((level - amount) < minimum) {
-            level = minimum;
-            return;
-        }
-        level -= amount;
+        modifyLevel((level - amount) < minimum ? minimum : level - amount);
+    }
+
+    /**
+     * Changes this level to {@code level}, counting it as a modification only
+     * if the level is actually different.
+     *
+     * @param level
+     *            the new level.
+     */
+    private void modifyLevel(int level) {
+        if (this.level != level)
+            modifications++;
+        this.level = level;
     }
 
     /**
@@ -165,6 +208,7 @@ public final class Skill {
      */
     public void setExperience(double experience) {
         this.experience = experience;
+        modifications++;
 
         if (this.experience > MAXIMUM_EXPERIENCE) {
             this.experience = MAXIMUM_EXPERIENCE;
@@ -190,6 +234,7 @@ public final class Skill {
      */
     public void setLevel(int level, boolean restriction) {
         this.level = level;
+        modifications++;
 
         if (restriction) {
             if (this.level < 0) {
@@ -216,6 +261,18 @@ public final class Skill {
      *            the new value to set.
      */
     protected void setRealLevel(int realLevel) {
+        if (this.realLevel != realLevel)
+            modifications++;
         this.realLevel = realLevel;
     }
+
+    /**
+     * Gets the amount of times the level, experience or real level of this
+     * skill have been modified.
+     *
+     * @return the amount of modifications.
+     */
+    public int getModifications() {
+        return modifications;
+    }
 }
@@ -94,7 +94,8 @@ public final class Bank extends ItemContainer {
         int itemId = item.getDefinition().isNoted() ? item.getId() - 1 : item.getId();
         if (!contains)
             return super.add(new Item(itemId, item.getAmount()), slot);
-        get(searchSlot(itemId)).incrementAmountBy(item.getAmount());
+        int stack = searchSlot(itemId);
+        set(stack, new Item(itemId, get(stack).getAmount() + item.getAmount()));
         return true;
     }
 
@@ -92,6 +92,7 @@ public final class Equipment extends ItemContainer {
     public void refresh() {
         refresh(player, 1688);
         player.sendBonus();
+        player.setCachedAppearance(null);
     }
 
     /**
@@ -44,6 +44,11 @@ public class ItemContainer implements Iterable<Item> {
      */
     private Item[] items;
 
+    /**
+     * The amount of times the items in this container have been modified.
+     */
+    private int modifications;
+
     /**
      * Creates a new {@link ItemContainer}.
      *
@@ -470,6 +475,7 @@ public class ItemContainer implements Iterable<Item> {
             System.arraycopy(slice, 0, items, sliceStart - 1, slice.length);
         }
         items[newSlot] = from;
+        modifications++;
         return true;
     }
 
@@ -487,6 +493,7 @@ public class ItemContainer implements Iterable<Item> {
                 newIndex++;
             }
         }
+        modifications++;
     }
 
     /**
@@ -563,6 +570,7 @@ public class ItemContainer implements Iterable<Item> {
      */
     public void set(int slot, Item item) {
         items[slot] = item;
+        modifications++;
     }
 
     /**
@@ -665,11 +673,23 @@ public class ItemContainer implements Iterable<Item> {
         return capacity;
     }
 
+    /**
+     * Gets the amount of times the items in this container have been
+     * modified. Items modified in place are not counted, so they should be
+     * replaced through {@link #set(int, Item)} instead.
+     *
+     * @return the amount of modifications.
+     */
+    public int getModifications() {
+        return modifications;
+    }
+
     /**
      * Clears all of the items in this container.
      */
     public void clear() {
         items = new Item[capacity];
+        modifications++;
     }
 
     /**
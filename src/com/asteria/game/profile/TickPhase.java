@@ -0,0 +1,61 @@
+package com.asteria.game.profile;
+
+/**
+ * The enumerated type whose elements represent the phases of a single
+ * {@link com.asteria.game.World#sequence()} that are timed by the
+ * {@link TickProfiler}.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public enum TickPhase {
+
+    /**
+     * The draining of queued logins.
+     */
+    LOGIN,
+
+    /**
+     * The draining of queued logouts.
+     */
+    LOGOUT,
+
+    /**
+     * The sequencing of the task queue.
+     */
+    TASKS,
+
+    /**
+     * The handling of queued messages, movement and logic for players.
+     */
+    PLAYER_LOGIC,
+
+    /**
+     * The logic and movement for NPCs.
+     */
+    NPC_LOGIC,
+
+    /**
+     * The precomputation of update blocks and the updating of players.
+     */
+    UPDATE,
+
+    /**
+     * The resetting of players and NPCs for the next sequence.
+     */
+    RESET,
+
+    /**
+     * The flushing of queued messages to the network.
+     */
+    FLUSH,
+
+    /**
+     * The snapshotting of players that have requested to be saved.
+     */
+    SAVE,
+
+    /**
+     * The entire sequence from start to finish.
+     */
+    TOTAL
+}
@@ -0,0 +1,193 @@
+package com.asteria.game.profile;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.ObjectName;
+
+import com.asteria.utility.LoggerUtils;
+
+/**
+ * The profiler that records how long each {@link TickPhase} of the game
+ * sequence takes. The durations of the most recent sequences are kept in a
+ * rolling window for every phase, from which percentiles are calculated on
+ * demand.
+ * <p>
+ * <p>
+ * Durations are only recorded by the game thread, but may be read from any
+ * thread.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class TickProfiler implements TickProfilerMBean {
+
+    /**
+     * The logger that will print important information.
+     */
+    private static Logger logger = LoggerUtils.getLogger(TickProfiler.class);
+
+    /**
+     * The amount of sequences kept in the rolling window of each phase.
+     */
+    private static final int SAMPLES = 1000;
+
+    /**
+     * The map of phases to their rolling windows of durations.
+     */
+    private final Map<TickPhase, Window> windows = new EnumMap<>(TickPhase.class);
+
+    /**
+     * Creates a new {@link TickProfiler}.
+     */
+    public TickProfiler() {
+        for (TickPhase phase : TickPhase.values())
+            windows.put(phase, new Window());
+    }
+
+    /**
+     * Records the duration of {@code phase}, which began at {@code start}.
+     *
+     * @param phase
+     *            the phase to record the duration of.
+     * @param start
+     *            the time in nanoseconds the phase began.
+     * @return the current time in nanoseconds, to be used as the start of the
+     *         next phase.
+     */
+    public long record(TickPhase phase, long start) {
+        long now = System.nanoTime();
+        windows.get(phase).add(now - start);
+        return now;
+    }
+
+    /**
+     * Registers this profiler with the platform MBean server, so that it may
+     * be monitored over JMX.
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.asteria:type=TickProfiler"));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not register the tick profiler MBean!", e);
+        }
+    }
+
+    /**
+     * Gets the median, 99th percentile and maximum durations of {@code phase}.
+     *
+     * @param phase
+     *            the phase to get the durations of.
+     * @return an array of the durations in that order.
+     */
+    public long[] getPercentiles(TickPhase phase) {
+        long[] sorted = windows.get(phase).sorted();
+        if (sorted.length == 0)
+            return new long[3];
+        return new long[] { percentile(sorted, 50), percentile(sorted, 99), sorted[sorted.length - 1] };
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        for (TickPhase phase : TickPhase.values()) {
+            long[] percentiles = getPercentiles(phase);
+            sb.append(phase).append(": p50= ").append(percentiles[0]).append("ns, p99= ").append(percentiles[1]).append("ns, max= ")
+                .append(percentiles[2]).append("ns").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long p50(String phase) {
+        return getPercentiles(TickPhase.valueOf(phase))[0];
+    }
+
+    @Override
+    public long p99(String phase) {
+        return getPercentiles(TickPhase.valueOf(phase))[1];
+    }
+
+    @Override
+    public long max(String phase) {
+        return getPercentiles(TickPhase.valueOf(phase))[2];
+    }
+
+    @Override
+    public void reset() {
+        windows.values().forEach(Window::clear);
+    }
+
+    /**
+     * Gets the value at {@code percentile} from an array of sorted durations.
+     *
+     * @param sorted
+     *            the sorted array of durations.
+     * @param percentile
+     *            the percentile to get.
+     * @return the duration at the percentile.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    /**
+     * A rolling window of the most recent durations recorded for a phase.
+     *
+     * @author lare96 <http://github.com/lare96>
+     */
+    private static final class Window {
+
+        /**
+         * The ring buffer of recorded durations.
+         */
+        private final long[] samples = new long[SAMPLES];
+
+        /**
+         * The index the next duration will be recorded at.
+         */
+        private int index;
+
+        /**
+         * The amount of durations currently in this window.
+         */
+        private int size;
+
+        /**
+         * Adds {@code duration} to this window, replacing the oldest duration
+         * if it is full.
+         *
+         * @param duration
+         *            the duration to add.
+         */
+        public synchronized void add(long duration) {
+            samples[index] = duration;
+            index = (index + 1) % samples.length;
+            if (size < samples.length)
+                size++;
+        }
+
+        /**
+         * Gets a sorted copy of the durations in this window.
+         *
+         * @return the sorted durations.
+         */
+        public synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        /**
+         * Discards all of the durations in this window.
+         */
+        public synchronized void clear() {
+            index = 0;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.asteria.game.profile;
+
+/**
+ * The management interface for the {@link TickProfiler}, exposing the rolling
+ * phase timings of the game sequence over JMX. All durations are in
+ * nanoseconds.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public interface TickProfilerMBean {
+
+    /**
+     * Gets a readable report of the median, 99th percentile and maximum
+     * duration of every phase.
+     *
+     * @return the report of all phases.
+     */
+    public String getReport();
+
+    /**
+     * Gets the median duration of {@code phase}.
+     *
+     * @param phase
+     *            the name of the phase.
+     * @return the median duration.
+     */
+    public long p50(String phase);
+
+    /**
+     * Gets the 99th percentile duration of {@code phase}.
+     *
+     * @param phase
+     *            the name of the phase.
+     * @return the 99th percentile duration.
+     */
+    public long p99(String phase);
+
+    /**
+     * Gets the maximum duration of {@code phase}.
+     *
+     * @param phase
+     *            the name of the phase.
+     * @return the maximum duration.
+     */
+    public long max(String phase);
+
+    /**
+     * Discards all of the recorded durations.
+     */
+    public void reset();
+}
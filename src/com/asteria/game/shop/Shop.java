@@ -243,7 +243,12 @@ public final class Shop {
             .isStackable()) {
 
             if (itemCache.containsKey(item.getId())) {
-                container.searchItem(item.getId()).ifPresent(i -> i.decrementAmountBy(item.getAmount()));
+                int slot = container.searchSlot(item.getId());
+                if (slot != -1) {
+                    Item stock = container.get(slot).copy();
+                    stock.decrementAmountBy(item.getAmount());
+                    container.set(slot, stock);
+                }
             } else if (!itemCache.containsKey(item.getId())) {
                 container.remove(item);
             }
@@ -302,7 +307,8 @@ public final class Shop {
         currency.getCurrency().recieveCurrency(player, item.getAmount() * (int) Math.floor(determinePrice(item) / 2));
 
         if (container.contains(item.getId())) {
-            container.searchItem(item.getId()).ifPresent(i -> i.incrementAmountBy(item.getAmount()));
+            int slot = container.searchSlot(item.getId());
+            container.set(slot, new Item(item.getId(), container.get(slot).getAmount() + item.getAmount()));
         } else {
             container.add(item);
         }
@@ -3,6 +3,7 @@ package com.asteria.game.shop;
 import java.util.Objects;
 
 import com.asteria.game.item.Item;
+import com.asteria.game.item.container.ItemContainer;
 import com.asteria.task.Task;
 
 /**
@@ -34,18 +35,23 @@ public final class ShopRestockTask extends Task {
             this.cancel();
             return;
         }
-        container.getContainer().stream().filter(Objects::nonNull).forEach(this::restock);
+        ItemContainer items = container.getContainer();
+        for (int slot = 0; slot < items.capacity(); slot++) {
+            if (items.used(slot))
+                restock(slot);
+        }
     }
 
     /**
-     * Attempts to restock {@code item} for the container.
+     * Attempts to restock the item on {@code slot} for the container.
      *
-     * @param item
-     *            the item to attempt to restock.
+     * @param slot
+     *            the slot of the item to attempt to restock.
      */
-    private void restock(Item item) {
+    private void restock(int slot) {
+        Item item = container.getContainer().get(slot);
         if (container.getItemCache().containsKey(item.getId()) && item.getAmount() < container.getItemCache().get(item.getId())) {
-            item.incrementAmount();
+            container.getContainer().set(slot, new Item(item.getId(), item.getAmount() + 1));
             int size = container.getContainer().size();
             container.getPlayers().stream().filter(Objects::nonNull).forEach(
                 p -> p.getMessages().sendItemsOnInterface(3900, container.getContainer().container(), size));
@@ -1,96 +1,171 @@
 package com.asteria.game.sync;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Phaser;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 import com.asteria.game.GameConstants;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * A synchronization executor that executes {@link GameSyncTask}s. These have
  * support for both concurrent and sequential synchronization tasks, and are
  * smart enough to determine when each should be used on a task-to-task basis.
- * 
+ * <p>
+ * <p>
+ * Concurrent tasks are executed by splitting the registered characters into
+ * chunks that are processed by a {@link ForkJoinPool}, rather than
+ * scheduling a separate task for every character. Idle threads steal the
+ * remaining chunks from busy ones, so the work balances itself even when
+ * some characters take longer to process than others.
+ *
  * @author lare96 <http://github.org/lare96>
  */
 public final class GameSyncExecutor {
 
     /**
-     * The executor that will execute the synchronization tasks. This value may
-     * or may not be {@code null}.
+     * The minimum amount of characters in a single chunk. Ranges smaller than
+     * this are never split any further, as the cost of forking would outweigh
+     * the work done.
      */
-    private final ExecutorService service;
+    private static final int MINIMUM_CHUNK = 32;
 
     /**
-     * The synchronizer that ensures that the thread waits until tasks are
-     * completed before proceeding. This value may or may not be {@code null}.
+     * The amount of chunks created for every thread, so that threads who
+     * finish early have chunks left to steal.
      */
-    private final Phaser phaser;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The pool that will execute the synchronization tasks. This value may or
+     * may not be {@code null}.
+     */
+    private final ForkJoinPool pool;
 
     /**
      * Creates a new {@link GameSyncExecutor}. It automatically determines how
      * many threads; if any, are needed for game synchronization.
      */
     public GameSyncExecutor() {
-        this.service = GameConstants.CONCURRENCY ? create(Runtime.getRuntime().availableProcessors()) : null;
-        this.phaser = GameConstants.CONCURRENCY ? new Phaser(1) : null;
+        this.pool = GameConstants.CONCURRENCY ? create(Runtime.getRuntime().availableProcessors()) : null;
     }
 
     /**
      * Submits {@code syncTask} to be executed as a synchronization task under
      * this executor. This method can and probably will block the calling thread
      * until it completes.
-     * 
+     *
      * @param syncTask
      *            the synchronization task to execute.
      */
     public void sync(GameSyncTask syncTask) {
-        if (service == null || phaser == null || !syncTask.isConcurrent()) {
-            for (int index = 1; index < syncTask.getCapacity(); index++) {
-                if (!syncTask.checkIndex(index))
-                    continue;
-                syncTask.execute(index);
-            }
+        if (pool == null || !syncTask.isConcurrent() || syncTask.getAmount() <= MINIMUM_CHUNK) {
+            execute(syncTask, 0, syncTask.getAmount());
             return;
         }
+        int threshold = Math.max(MINIMUM_CHUNK, syncTask.getAmount() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        pool.invoke(new SyncAction(syncTask, 0, syncTask.getAmount(), threshold));
+    }
 
-        phaser.bulkRegister(syncTask.getAmount());
-        for (int index = 1; index < syncTask.getCapacity(); index++) {
+    /**
+     * Executes {@code syncTask} for every character still registered between
+     * the positions {@code from} inclusive and {@code to} exclusive.
+     *
+     * @param syncTask
+     *            the synchronization task to execute.
+     * @param from
+     *            the first position to execute the task for.
+     * @param to
+     *            the position after the last position to execute the task for.
+     */
+    private static void execute(GameSyncTask syncTask, int from, int to) {
+        for (int position = from; position < to; position++) {
+            int index = syncTask.getSlot(position);
             if (!syncTask.checkIndex(index))
                 continue;
-            final int finalIndex = index;
-            service.execute(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        syncTask.execute(finalIndex);
-                    } finally {
-                        phaser.arriveAndDeregister();
-                    }
-                }
-            });
+            syncTask.execute(index);
         }
-        phaser.arriveAndAwaitAdvance();
     }
 
     /**
-     * Creates and configures the update service for this game sync executor.
-     * The returned executor is <b>unconfigurable</b> meaning it's configuration
-     * can no longer be modified.
-     * 
+     * Creates and configures the fork join pool for this game sync executor.
+     *
      * @param nThreads
-     *            the amount of threads to create this service.
-     * @return the newly created and configured service.
+     *            the amount of threads to create this pool with.
+     * @return the newly created and configured pool.
      */
-    private ExecutorService create(int nThreads) {
+    private ForkJoinPool create(int nThreads) {
         if (nThreads <= 1)
             return null;
-        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(nThreads);
-        executor.setRejectedExecutionHandler(new CallerRunsPolicy());
-        executor.setThreadFactory(new ThreadFactoryBuilder().setNameFormat("GameSyncThread").build());
-        return Executors.unconfigurableExecutorService(executor);
+        return new ForkJoinPool(nThreads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("GameSyncThread");
+            return thread;
+        }, (thread, e) -> e.printStackTrace(), false);
+    }
+
+    /**
+     * The action that executes a synchronization task over a range of positions,
+     * splitting the range in half until it is small enough to be executed
+     * directly.
+     *
+     * @author lare96 <http://github.org/lare96>
+     */
+    private static final class SyncAction extends RecursiveAction {
+
+        /**
+         * The unique serial version identifier.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The synchronization task to execute.
+         */
+        private final GameSyncTask syncTask;
+
+        /**
+         * The first position to execute the task for.
+         */
+        private final int from;
+
+        /**
+         * The position after the last position to execute the task for.
+         */
+        private final int to;
+
+        /**
+         * The amount of positions at which the range is no longer split.
+         */
+        private final int threshold;
+
+        /**
+         * Creates a new {@link SyncAction}.
+         *
+         * @param syncTask
+         *            the synchronization task to execute.
+         * @param from
+         *            the first position to execute the task for.
+         * @param to
+         *            the position after the last position to execute the task
+         *            for.
+         * @param threshold
+         *            the amount of positions at which the range is no longer
+         *            split.
+         */
+        public SyncAction(GameSyncTask syncTask, int from, int to, int threshold) {
+            this.syncTask = syncTask;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                execute(syncTask, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SyncAction(syncTask, from, middle, threshold), new SyncAction(syncTask, middle, to, threshold));
+        }
     }
 }
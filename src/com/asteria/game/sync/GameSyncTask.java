@@ -14,14 +14,9 @@ import com.google.common.base.Preconditions;
 public abstract class GameSyncTask {
 
     /**
-     * The amount of parties the synchronizer will register.
+     * The slots of the characters this task will be executed for.
      */
-    private final int amount;
-
-    /**
-     * The capacity of the backing character list.
-     */
-    private final int capacity;
+    private final int[] slots;
 
     /**
      * The type of character using this synchronization task.
@@ -44,8 +39,7 @@ public abstract class GameSyncTask {
      */
     public GameSyncTask(NodeType type, boolean concurrent) {
         Preconditions.checkArgument(type == NodeType.PLAYER || type == NodeType.NPC, "Invalid node type.");
-        this.amount = type == NodeType.PLAYER ? World.getPlayers().size() : World.getNpcs().size();
-        this.capacity = type == NodeType.PLAYER ? World.getPlayers().capacity() : World.getNpcs().capacity();
+        this.slots = type == NodeType.PLAYER ? World.getPlayers().slots() : World.getNpcs().slots();
         this.type = type;
         this.concurrent = concurrent;
     }
@@ -81,21 +75,23 @@ public abstract class GameSyncTask {
     public abstract void execute(final int index);
 
     /**
-     * Gets the amount of parties the synchronizer will register.
+     * Gets the amount of characters this task will be executed for.
      * 
-     * @return the amount of parties.
+     * @return the amount of characters.
      */
     public final int getAmount() {
-        return amount;
+        return slots.length;
     }
 
     /**
-     * Gets the capacity of the backing character list.
+     * Gets the slot of the character at {@code position} in this task.
      * 
-     * @return the capacity of the backing list.
+     * @param position
+     *            the position of the character, below {@code getAmount()}.
+     * @return the slot of the character.
      */
-    public final int getCapacity() {
-        return capacity;
+    public final int getSlot(int position) {
+        return slots[position];
     }
 
     /**
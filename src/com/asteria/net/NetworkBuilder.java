@@ -2,12 +2,18 @@ package com.asteria.net;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.ResourceLeakDetector;
 import io.netty.util.ResourceLeakDetector.Level;
+import io.netty.util.internal.PlatformDependent;
 
 import java.io.IOException;
 import java.util.logging.Logger;
@@ -35,9 +41,23 @@ public final class NetworkBuilder {
     private final ServerBootstrap bootstrap = new ServerBootstrap();
 
     /**
-     * The event loop group that will be attached to the bootstrap.
+     * Determines if the native epoll transport is available on this machine.
+     * The transport allocates its event arrays off-heap, so it also requires
+     * access to {@code sun.misc.Unsafe}.
      */
-    private final EventLoopGroup loopGroup = new NioEventLoopGroup();
+    private final boolean epoll = Epoll.isAvailable() && PlatformDependent.hasUnsafe();
+
+    /**
+     * The event loop group that will accept incoming connections.
+     */
+    private final EventLoopGroup bossGroup = epoll ? new EpollEventLoopGroup(NetworkConstants.BOSS_THREADS) : new NioEventLoopGroup(
+        NetworkConstants.BOSS_THREADS);
+
+    /**
+     * The event loop group that will handle I/O for accepted connections.
+     */
+    private final EventLoopGroup workerGroup = epoll ? new EpollEventLoopGroup(NetworkConstants.WORKER_THREADS)
+        : new NioEventLoopGroup(NetworkConstants.WORKER_THREADS);
 
     /**
      * The {@link ChannelInitializer} that will determine how channels will be
@@ -58,9 +78,18 @@ public final class NetworkBuilder {
         if (port != 43594 && port != 5555 && port != 43595)
             logger.warning("The preferred ports for Runescape servers are 43594, 5555, and 43595!");
         ResourceLeakDetector.setLevel(Server.DEBUG ? Level.PARANOID : NetworkConstants.RESOURCE_DETECTION);
-        bootstrap.group(loopGroup);
-        bootstrap.channel(NioServerSocketChannel.class);
+        Class<? extends ServerSocketChannel> channel = epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+        logger.info("Using the " + (epoll ? "native epoll" : "NIO") + " network transport.");
+        bootstrap.group(bossGroup, workerGroup);
+        bootstrap.channel(channel);
         bootstrap.childHandler(channelInitializer);
+        bootstrap.option(ChannelOption.SO_BACKLOG, NetworkConstants.BACKLOG);
+        bootstrap.childOption(ChannelOption.ALLOCATOR, NetworkConstants.ALLOCATOR);
+        bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
+        bootstrap.childOption(ChannelOption.SO_RCVBUF, NetworkConstants.RECEIVE_BUFFER_SIZE);
+        bootstrap.childOption(ChannelOption.SO_SNDBUF, NetworkConstants.SEND_BUFFER_SIZE);
+        bootstrap.childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, NetworkConstants.WRITE_BUFFER_HIGH_MARK);
+        bootstrap.childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, NetworkConstants.WRITE_BUFFER_LOW_MARK);
         bootstrap.bind(port).syncUninterruptibly();
     }
 }
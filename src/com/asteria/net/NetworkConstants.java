@@ -1,5 +1,7 @@
 package com.asteria.net;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.util.AttributeKey;
 import io.netty.util.ResourceLeakDetector.Level;
 
@@ -21,6 +23,47 @@ public final class NetworkConstants {
      */
     public static final int PORT = 43594;
 
+    /**
+     * The amount of threads in the event loop group that accepts incoming
+     * connections.
+     */
+    public static final int BOSS_THREADS = 1;
+
+    /**
+     * The amount of threads in the event loop group that handles I/O for
+     * accepted connections, or {@code 0} to use the Netty default of twice
+     * the amount of available processors.
+     */
+    public static final int WORKER_THREADS = 0;
+
+    /**
+     * The maximum length of the queue of incoming connections that have not
+     * yet been accepted.
+     */
+    public static final int BACKLOG = 128;
+
+    /**
+     * The size of the socket receive buffer for each connection in bytes.
+     */
+    public static final int RECEIVE_BUFFER_SIZE = 8192;
+
+    /**
+     * The size of the socket send buffer for each connection in bytes.
+     */
+    public static final int SEND_BUFFER_SIZE = 32768;
+
+    /**
+     * The amount of pending outgoing bytes at which a channel will become
+     * unwritable.
+     */
+    public static final int WRITE_BUFFER_HIGH_MARK = 65536;
+
+    /**
+     * The amount of pending outgoing bytes a channel must fall under to become
+     * writable again.
+     */
+    public static final int WRITE_BUFFER_LOW_MARK = 32768;
+
     /**
      * The input timeout value that determines how long a session can go without
      * reading data from the client in {@code SECONDS}.
@@ -43,6 +86,21 @@ public final class NetworkConstants {
      */
     public static final Level RESOURCE_DETECTION = Level.DISABLED;
 
+    /**
+     * The allocator used for channel buffers and outgoing update messages.
+     * Buffers allocated from it are pooled, and must be released once they are
+     * no longer needed.
+     */
+    public static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    /**
+     * Determines if outgoing messages should only be written to the channel
+     * when queued, and flushed to the socket once at the end of every
+     * sequence. If {@code false} every message is flushed as soon as it is
+     * queued.
+     */
+    public static final boolean FLUSH_PER_SEQUENCE = true;
+
     /**
      * An array of the message opcodes mapped to their respective listeners.
      */
@@ -76,6 +134,23 @@ public final class NetworkConstants {
      */
     public static final boolean DECODE_RSA = true;
 
+    /**
+     * The amount of threads that will execute the expensive stages of the
+     * login protocol.
+     */
+    public static final int LOGIN_THREADS = 2;
+
+    /**
+     * The maximum amount of logins that can be waiting to be executed, any
+     * logins over this amount are rejected.
+     */
+    public static final int LOGIN_QUEUE_SIZE = 200;
+
+    /**
+     * The maximum amount of logins a single host can have in flight at once.
+     */
+    public static final int LOGIN_LIMIT_PER_HOST = 2;
+
     /**
      * The private RSA modulus and exponent values.
      */
@@ -17,6 +17,7 @@ import com.asteria.game.character.player.Rights;
 import com.asteria.game.character.player.serialize.PlayerSerialization;
 import com.asteria.net.codec.MessageDecoder;
 import com.asteria.net.codec.MessageEncoder;
+import com.asteria.net.login.LoginExecutor;
 import com.asteria.net.login.LoginResponse;
 import com.asteria.net.message.InputMessage;
 import com.asteria.net.message.InputMessageListener;
@@ -64,6 +65,12 @@ public final class PlayerIO {
      */
     private LoginResponse response;
 
+    /**
+     * Determines if messages have been written to the channel since it was
+     * last flushed.
+     */
+    private volatile boolean flushPending;
+
     /**
      * Creates a new {@link PlayerIO}.
      *
@@ -71,7 +78,20 @@ public final class PlayerIO {
      *            the socket channel that data will be written to.
      */
     public PlayerIO(SocketChannel channel) {
-        this.host = channel.remoteAddress().getAddress().getHostAddress();
+        this(channel, channel.remoteAddress().getAddress().getHostAddress());
+    }
+
+    /**
+     * Creates a new {@link PlayerIO} for a channel that is not necessarily
+     * backed by a socket.
+     *
+     * @param channel
+     *            the channel that data will be written to.
+     * @param host
+     *            the host address this session is bound to.
+     */
+    public PlayerIO(Channel channel, String host) {
+        this.host = host;
         this.response = ConnectionHandler.evaluate(host);
         this.channel = channel;
         this.player = new Player(this);
@@ -84,15 +104,25 @@ public final class PlayerIO {
 
     /**
      * Queues the {@code msg} for this session to be encoded and sent to the
-     * client.
+     * client. The message is released once it has been written, or once the
+     * write has failed, or right away if the channel is no longer open. If
+     * {@link NetworkConstants#FLUSH_PER_SEQUENCE} is enabled the message is
+     * only sent once this session is flushed.
      *
      * @param msg
      *            the message to queue.
      */
     public void queue(MessageBuilder msg) {
         try {
-            if (!channel.isOpen())
+            if (!channel.isOpen()) {
+                msg.release();
+                return;
+            }
+            if (NetworkConstants.FLUSH_PER_SEQUENCE) {
+                channel.write(msg);
+                flushPending = true;
                 return;
+            }
             channel.writeAndFlush(msg);
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -100,6 +130,18 @@ public final class PlayerIO {
         }
     }
 
+    /**
+     * Flushes all messages that have been written to the channel since it was
+     * last flushed. This is invoked once for every session at the end of each
+     * sequence so that all of the messages queued during it are sent together.
+     */
+    public void flush() {
+        if (!flushPending)
+            return;
+        flushPending = false;
+        channel.flush();
+    }
+
     /**
      * Uses state-machine to handle upstream messages from Netty.
      * 
@@ -109,9 +151,9 @@ public final class PlayerIO {
     public void handleIncomingMessage(Message msg) {
         switch (state) {
 
-        // Handle the login details, send the final response to the client
-        // before queuing the session over to the main game thread to be logged
-        // in on the next sequence.
+        // Handle the login details on the login executor, send the final
+        // response to the client before queuing the session over to the main
+        // game thread to be logged in on the next sequence.
         case LOGGING_IN:
             if (msg instanceof LoginDetailsMessage)
                 finalizeDetails((LoginDetailsMessage) msg);
@@ -122,18 +164,25 @@ public final class PlayerIO {
         // sequence.
         case LOGGED_IN:
             if (msg instanceof InputMessage) {
-                if (messageQueue.size() <= NetworkConstants.DECODE_LIMIT)
+                if (messageQueue.size() <= NetworkConstants.DECODE_LIMIT) {
                     messageQueue.add((InputMessage) msg);
+                } else {
+                    ((InputMessage) msg).release();
+                }
             }
             break;
         default:
+            if (msg instanceof InputMessage)
+                ((InputMessage) msg).release();
             throw new IllegalStateException("Cannot receive upstream messages when " + state + ".");
         }
     }
 
     /**
      * Ensures that the login details are valid and completes the last part of
-     * the login protocol by sending the final login response code.
+     * the login protocol by sending the final login response code. This is
+     * executed by the {@link LoginExecutor}, the response is written and the
+     * pipeline rearranged back on the event loop of the channel.
      * 
      * @param msg
      *            the message containing the login details.
@@ -153,40 +202,50 @@ public final class PlayerIO {
             player.setUsername(msg.getUsername());
             player.setUsernameHash(TextUtils.nameToHash(msg.getUsername()));
             player.setPassword(msg.getPassword());
-            if (World.getPlayer(player.getUsernameHash()).isPresent()) {
+            boolean reserved = World.reserveUsername(player.getUsernameHash());
+            if (!reserved) {
                 response = LoginResponse.ACCOUNT_ONLINE;
             }
             if (response == LoginResponse.NORMAL) {
                 response = new PlayerSerialization(player).deserialize(msg.getPassword());
             }
+            if (reserved && response != LoginResponse.NORMAL) {
+                World.releaseUsername(player.getUsernameHash());
+            }
             player.setRights(ConnectionHandler.isLocal(host) ? Rights.DEVELOPER : player.getRights());
         }
 
-        // Write the final response, send it off to the client.
-        ByteBuf resp = Unpooled.buffer(3);
-        resp.writeByte(response.getCode());
-        resp.writeByte(player.getRights().getProtocolValue());
-        resp.writeByte(0);
-
-        // If the response was invalid, close the channel right after the data
-        // is sent to the client.
-        ChannelFuture future = msg.getCtx().channel().writeAndFlush(resp);
-        if (response != LoginResponse.NORMAL) {
-            future.addListener(ChannelFutureListener.CLOSE);
-            return;
-        }
+        // Hand the session back over to the event loop of the channel to
+        // complete the login.
+        LoginResponse finalResponse = response;
+        msg.getCtx().channel().eventLoop().execute(() -> {
+
+            // Write the final response, send it off to the client.
+            ByteBuf resp = Unpooled.buffer(3);
+            resp.writeByte(finalResponse.getCode());
+            resp.writeByte(player.getRights().getProtocolValue());
+            resp.writeByte(0);
+
+            // If the response was invalid, close the channel right after the
+            // data is sent to the client.
+            ChannelFuture future = msg.getCtx().channel().writeAndFlush(resp);
+            if (finalResponse != LoginResponse.NORMAL) {
+                future.addListener(ChannelFutureListener.CLOSE);
+                return;
+            }
 
-        // Everything went well, so queue rearrange the pipeline for gameplay
-        // and queue the player for login.
-        msg.getCtx().pipeline().addAfter("post-login-handshake", "encoder", new MessageEncoder(msg.getEncryptor()));
-        msg.getCtx().pipeline().addAfter("encoder", "decoder", new MessageDecoder(msg.getDecryptor()));
-        msg.getCtx().pipeline().remove("post-login-handshake");
-        World.queueLogin(player);
+            // Everything went well, so queue rearrange the pipeline for
+            // gameplay and queue the player for login.
+            msg.getCtx().pipeline().addAfter("post-login-handshake", "encoder", new MessageEncoder(msg.getEncryptor()));
+            msg.getCtx().pipeline().addAfter("encoder", "decoder", new MessageDecoder(msg.getDecryptor()));
+            msg.getCtx().pipeline().remove("post-login-handshake");
+            World.queueLogin(player);
+        });
     }
 
     /**
      * Handles all of the queued messages from the {@link MessageDecoder} by
-     * polling the internal queue.
+     * polling the internal queue. Each message is released once handled.
      */
     public void handleQueuedMessages() {
         InputMessage msg;
@@ -196,10 +255,22 @@ public final class PlayerIO {
                 listener.handleMessage(player, msg.getOpcode(), msg.getSize(), msg.getPayload());
             } catch (Exception e) {
                 e.printStackTrace();
+            } finally {
+                msg.release();
             }
         }
     }
 
+    /**
+     * Releases and discards all of the queued messages from the
+     * {@link MessageDecoder} without handling them.
+     */
+    public void discardQueuedMessages() {
+        InputMessage msg;
+        while ((msg = messageQueue.poll()) != null)
+            msg.release();
+    }
+
     /**
      * Gets the channel that will manage the connection for this player.
      *
@@ -63,16 +63,25 @@ public final class MessageDecoder extends ByteToMessageDecoder {
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        switch (state) {
-        case OPCODE:
-            opcode(ctx, in).ifPresent(out::add);
-            break;
-        case SIZE:
-            size(in);
-            break;
-        case PAYLOAD:
-            payload(ctx, in).ifPresent(out::add);
-            break;
+
+        // Decode every complete message in the buffer in one pass, stopping
+        // once there isn't enough data left to advance the current state.
+        for (;;) {
+            State current = state;
+            int readable = in.readableBytes();
+            switch (state) {
+            case OPCODE:
+                opcode(ctx, in).ifPresent(out::add);
+                break;
+            case SIZE:
+                size(in);
+                break;
+            case PAYLOAD:
+                payload(ctx, in).ifPresent(out::add);
+                break;
+            }
+            if (state == current && in.readableBytes() == readable)
+                break;
         }
     }
 
@@ -120,7 +129,8 @@ public final class MessageDecoder extends ByteToMessageDecoder {
 
     /**
      * Decode the payload for this message, then queue it over to be received
-     * upstream by the Netty channel handler.
+     * upstream by the Netty channel handler. The payload is a retained slice of
+     * the buffer rather than a copy, and must be released once handled.
      * 
      * @param ctx
      *            the context for our channel, used to retrieve the session
@@ -131,7 +141,7 @@ public final class MessageDecoder extends ByteToMessageDecoder {
      */
     private Optional<InputMessage> payload(ChannelHandlerContext ctx, ByteBuf msg) {
         if (msg.isReadable(size))
-            return message(ctx, msg.readBytes(size));
+            return message(ctx, msg.readSlice(size).retain());
         return Optional.empty();
     }
 
@@ -155,6 +165,7 @@ public final class MessageDecoder extends ByteToMessageDecoder {
         try {
             if (NetworkConstants.MESSAGES[opcode] != null)
                 return Optional.of(new InputMessage(opcode, size, MessageBuilder.create(payload)));
+            payload.release();
             if (Server.DEBUG) {
                 PlayerIO session = ctx.channel().attr(NetworkConstants.SESSION_KEY).get();
                 logger.info(session + " unhandled upstream message [opcode= " + opcode + ", size= " + size + "]");
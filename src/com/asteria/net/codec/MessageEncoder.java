@@ -2,18 +2,22 @@ package com.asteria.net.codec;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
 
 import com.asteria.net.ISAACCipher;
 import com.asteria.net.message.MessageBuilder;
 
 /**
- * The {@link MessageToByteEncoder} implementation that encodes and queues the
- * game logic for all outgoing {@link MessageBuilder}s.
+ * The {@link MessageToMessageEncoder} implementation that encodes and queues
+ * the game logic for all outgoing {@link MessageBuilder}s. The backing buffer
+ * of each message is encrypted in place and passed on without being copied,
+ * and is released once it has been written.
  * 
  * @author lare96 <http://github.org/lare96>
  */
-public final class MessageEncoder extends MessageToByteEncoder<MessageBuilder> {
+public final class MessageEncoder extends MessageToMessageEncoder<MessageBuilder> {
 
     /**
      * The ISAAC that will encrypt outgoing messages.
@@ -31,13 +35,14 @@ public final class MessageEncoder extends MessageToByteEncoder<MessageBuilder> {
     }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, MessageBuilder msg, ByteBuf out) throws Exception {
+    protected void encode(ChannelHandlerContext ctx, MessageBuilder msg, List<Object> out) throws Exception {
 
         // Generate a new encryption key using ISAAC, encode the message and
-        // write it to the client.
+        // write it to the client. The message is released once encoded, so
+        // the buffer is retained for the rest of the pipeline.
         ByteBuf internal = msg.buffer();
         int value = internal.getByte(0) + encryptor.getKey();
         internal.setByte(0, value);
-        out.writeBytes(internal);
+        out.add(internal.retain());
     }
 }
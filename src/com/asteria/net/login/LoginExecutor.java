@@ -0,0 +1,99 @@
+package com.asteria.net.login;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.asteria.net.NetworkConstants;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The executor that handles the expensive stages of the login protocol, such
+ * as decoding the RSA block and loading character files, so that they do not
+ * stall the Netty I/O threads. Logins are executed in the order they were
+ * submitted from a bounded queue, and each host may only have a limited amount
+ * of logins in flight at once.
+ *
+ * @author lare96 <http://github.com/lare96>
+ */
+public final class LoginExecutor {
+
+    /**
+     * The executor that will execute the login tasks.
+     */
+    private static final ExecutorService SERVICE = create();
+
+    /**
+     * The concurrent map of hosts to the amount of logins they have in flight.
+     */
+    private static final Map<String, Integer> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    /**
+     * The default constructor.
+     *
+     * @throws UnsupportedOperationException
+     *             if this class is instantiated.
+     */
+    private LoginExecutor() {
+        throw new UnsupportedOperationException("This class cannot be instantiated!");
+    }
+
+    /**
+     * Submits {@code login} to be executed on behalf of {@code host}. The
+     * login will be rejected if the host already has too many logins in
+     * flight, or if the queue of pending logins is full.
+     *
+     * @param host
+     *            the host the login is being executed for.
+     * @param login
+     *            the login task to execute.
+     * @return {@code true} if the login was submitted, {@code false} if it was
+     *         rejected.
+     */
+    public static boolean execute(String host, Runnable login) {
+        if (IN_FLIGHT.merge(host, 1, Integer::sum) > NetworkConstants.LOGIN_LIMIT_PER_HOST) {
+            release(host);
+            return false;
+        }
+        try {
+            SERVICE.execute(() -> {
+                try {
+                    login.run();
+                } finally {
+                    release(host);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(host);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reduces the amount of logins {@code host} has in flight, removing it from
+     * the map once it has none left.
+     *
+     * @param host
+     *            the host to release a login for.
+     */
+    private static void release(String host) {
+        IN_FLIGHT.computeIfPresent(host, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    /**
+     * Creates and configures the service for this login executor.
+     *
+     * @return the newly created and configured service.
+     */
+    private static ExecutorService create() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(NetworkConstants.LOGIN_THREADS, NetworkConstants.LOGIN_THREADS, 0L,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(NetworkConstants.LOGIN_QUEUE_SIZE, true));
+        executor.setThreadFactory(new ThreadFactoryBuilder().setNameFormat("LoginThread").setDaemon(true).build());
+        return executor;
+    }
+}
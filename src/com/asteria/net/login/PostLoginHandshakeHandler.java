@@ -2,6 +2,7 @@ package com.asteria.net.login;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 
@@ -10,6 +11,7 @@ import java.util.List;
 
 import com.asteria.net.ISAACCipher;
 import com.asteria.net.NetworkConstants;
+import com.asteria.net.PlayerIO;
 import com.asteria.net.message.LoginDetailsMessage;
 import com.asteria.net.message.MessageBuilder;
 
@@ -21,9 +23,20 @@ import com.asteria.net.message.MessageBuilder;
  */
 public final class PostLoginHandshakeHandler extends ByteToMessageDecoder {
 
+    /**
+     * Determines if the login block has been read and submitted to the
+     * {@link LoginExecutor}.
+     */
+    private boolean submitted;
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
 
+        // Any data received after the login block is left alone until the
+        // pipeline has been rearranged for gameplay.
+        if (submitted)
+            return;
+
         // Read the login type, validate it.
         if (in.readableBytes() < 2)
             return;
@@ -51,18 +64,57 @@ public final class PostLoginHandshakeHandler extends ByteToMessageDecoder {
         for (int i = 0; i < 9; i++)
             in.readInt();
 
-        // Either decode RSA, or proceed normally depending on the network
-        // settings.
+        // Read the rest of the login block, and hand it over to the login
+        // executor to be decoded away from the networking threads.
         loginEncryptPacketSize--;
         in.readByte();
+        byte[] block = new byte[loginEncryptPacketSize];
+        in.readBytes(block);
+        submitted = true;
+
+        PlayerIO session = ctx.channel().attr(NetworkConstants.SESSION_KEY).get();
+        boolean accepted = LoginExecutor.execute(session.getHost(), () -> {
+            try {
+                session.handleIncomingMessage(decodeBlock(ctx, block));
+            } catch (Exception e) {
+                e.printStackTrace();
+                ctx.channel().close();
+            }
+        });
+
+        // The login executor is too busy to handle this login, so tell the
+        // client to try again.
+        if (!accepted) {
+            ByteBuf resp = Unpooled.buffer(3);
+            resp.writeByte(LoginResponse.PLEASE_TRY_AGAIN.getCode());
+            resp.writeByte(0);
+            resp.writeByte(0);
+            ctx.channel().writeAndFlush(resp).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Decodes the login block, decoding RSA first depending on the network
+     * settings. This is executed by the {@link LoginExecutor}.
+     *
+     * @param ctx
+     *            the context of the channel the block was received from.
+     * @param block
+     *            the login block to decode.
+     * @return the message containing the decoded login details.
+     * @throws Exception
+     *             if the login block is invalid.
+     */
+    private static LoginDetailsMessage decodeBlock(ChannelHandlerContext ctx, byte[] block) throws Exception {
+
+        // Either decode RSA, or proceed normally depending on the network
+        // settings.
         String username = null;
         String password = null;
         ISAACCipher encryptor = null;
         ISAACCipher decryptor = null;
         if (NetworkConstants.DECODE_RSA) {
-            byte[] encryptionBytes = new byte[loginEncryptPacketSize];
-            in.readBytes(encryptionBytes);
-            ByteBuf rsaBuffer = Unpooled.wrappedBuffer(new BigInteger(encryptionBytes).modPow(NetworkConstants.RSA_EXPONENT,
+            ByteBuf rsaBuffer = Unpooled.wrappedBuffer(new BigInteger(block).modPow(NetworkConstants.RSA_EXPONENT,
                 NetworkConstants.RSA_MODULUS).toByteArray());
             int rsaOpcode = rsaBuffer.readByte();
             if (rsaOpcode != 10)
@@ -79,6 +131,7 @@ public final class PostLoginHandshakeHandler extends ByteToMessageDecoder {
             username = db.getString();
             password = db.getString();
         } else {
+            ByteBuf in = Unpooled.wrappedBuffer(block);
             in.readByte();
             long clientHalf = in.readLong();
             long serverHalf = in.readLong();
@@ -94,8 +147,7 @@ public final class PostLoginHandshakeHandler extends ByteToMessageDecoder {
         }
 
         // Finally, we've decoded all the data we need for the final response of
-        // the login protocol. Here we send it as an upstream Netty message to
-        // be handled in the PlayerIO class.
-        out.add(new LoginDetailsMessage(ctx, username, password, encryptor, decryptor));
+        // the login protocol. This is handed to the PlayerIO class directly.
+        return new LoginDetailsMessage(ctx, username, password, encryptor, decryptor);
     }
 }
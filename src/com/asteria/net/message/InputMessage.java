@@ -67,4 +67,12 @@ public final class InputMessage implements Message {
     public MessageBuilder getPayload() {
         return payload;
     }
+
+    /**
+     * Releases the buffer backing the payload of this message. This should be
+     * done once the message has been handled or discarded.
+     */
+    public void release() {
+        payload.buffer().release();
+    }
 }
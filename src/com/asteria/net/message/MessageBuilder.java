@@ -2,18 +2,23 @@ package com.asteria.net.message;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCounted;
 
 import com.asteria.net.ByteOrder;
+import com.asteria.net.NetworkConstants;
 import com.asteria.net.ValueType;
 
 /**
  * The {@link Message} implementation that functions as a dynamic buffer wrapper
- * backed by a {@link ByteBuf} that is used for reading and writing data.
+ * backed by a {@link ByteBuf} that is used for reading and writing data. The
+ * reference count of a builder is the reference count of its backing buffer,
+ * so a builder written to a channel is released by the channel even if the
+ * write fails before it is encoded.
  *
  * @author lare96 <http://github.com/lare96>
  * @author blakeman8192
  */
-public final class MessageBuilder implements Message {
+public final class MessageBuilder implements Message, ReferenceCounted {
 
     /**
      * An array of the bit masks used for writing bits.
@@ -38,9 +43,16 @@ public final class MessageBuilder implements Message {
     private int varLengthIndex = 0;
 
     /**
-     * The current bit position when writing bits.
+     * The bits that have been written but not yet flushed to the backing
+     * buffer, aligned to the least significant bit.
      */
-    private int bitIndex = 0;
+    private long bitBuffer;
+
+    /**
+     * The amount of bits within {@link #bitBuffer} that have not yet been
+     * flushed to the backing buffer.
+     */
+    private int bitCount;
 
     /**
      * Creates a new {@link MessageBuilder} with the {@code buf} backing buffer.
@@ -84,18 +96,55 @@ public final class MessageBuilder implements Message {
         return MessageBuilder.create(DEFAULT_CAP);
     }
 
+    /**
+     * Clears this buffer so it can be reused to build another message. The
+     * capacity of the backing buffer is retained.
+     *
+     * @return an instance of this message builder.
+     */
+    public MessageBuilder clear() {
+        buf.clear();
+        varLengthIndex = 0;
+        bitBuffer = 0;
+        bitCount = 0;
+        return this;
+    }
+
+    /**
+     * Creates a copy of the readable bytes in this buffer, backed by a buffer
+     * from the {@link NetworkConstants#ALLOCATOR}. The copy is released once it
+     * has been written to a channel, which allows this buffer to be reused
+     * right after the copy has been queued.
+     *
+     * @return the newly created copy.
+     */
+    public MessageBuilder copyPooled() {
+        ByteBuf copy = NetworkConstants.ALLOCATOR.buffer(buf.readableBytes());
+        copy.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+        return MessageBuilder.create(copy);
+    }
+
     /**
      * Prepares the buffer for writing bits.
      */
     public void startBitAccess() {
-        bitIndex = buf.writerIndex() * 8;
+        bitBuffer = 0;
+        bitCount = 0;
     }
 
     /**
-     * Prepares the buffer for writing bytes.
+     * Prepares the buffer for writing bytes, flushing any remaining bits to the
+     * backing buffer. The final byte is padded with zeros if it is incomplete.
      */
     public void endBitAccess() {
-        buf.writerIndex((bitIndex + 7) / 8);
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            buf.writeByte((int) (bitBuffer >>> bitCount));
+        }
+        if (bitCount > 0)
+            buf.writeByte((int) (bitBuffer << (8 - bitCount)));
+        bitBuffer = 0;
+        bitCount = 0;
     }
 
     /**
@@ -209,7 +258,9 @@ public final class MessageBuilder implements Message {
     }
 
     /**
-     * Writes the value as a variable amount of bits.
+     * Writes the value as a variable amount of bits. Bits are accumulated and
+     * only flushed to the backing buffer as whole words, which avoids reading
+     * and writing back the same byte for every call.
      *
      * @param amount
      *            the amount of bits to write.
@@ -223,33 +274,11 @@ public final class MessageBuilder implements Message {
     public MessageBuilder putBits(int amount, int value) {
         if (amount < 0 || amount > 32)
             throw new IllegalArgumentException("Number of bits must be " + "between 1 and 32 inclusive.");
-        int bytePos = bitIndex >> 3;
-        int bitOffset = 8 - (bitIndex & 7);
-        bitIndex = bitIndex + amount;
-        int requiredSpace = bytePos - buf.writerIndex() + 1;
-        requiredSpace += (amount + 7) / 8;
-        if (buf.writableBytes() < requiredSpace) {
-            ByteBuf old = buf;
-            buf = Unpooled.buffer(old.capacity() + requiredSpace);
-            buf.writeBytes(old);
-        }
-        for (; amount > bitOffset; bitOffset = 8) {
-            byte tmp = buf.getByte(bytePos);
-            tmp &= ~BIT_MASK[bitOffset];
-            tmp |= (value >> (amount - bitOffset)) & BIT_MASK[bitOffset];
-            buf.setByte(bytePos++, tmp);
-            amount -= bitOffset;
-        }
-        if (amount == bitOffset) {
-            byte tmp = buf.getByte(bytePos);
-            tmp &= ~BIT_MASK[bitOffset];
-            tmp |= value & BIT_MASK[bitOffset];
-            buf.setByte(bytePos, tmp);
-        } else {
-            byte tmp = buf.getByte(bytePos);
-            tmp &= ~(BIT_MASK[amount] << (bitOffset - amount));
-            tmp |= (value & BIT_MASK[amount]) << (bitOffset - amount);
-            buf.setByte(bytePos, tmp);
+        bitBuffer = (bitBuffer << amount) | (value & BIT_MASK[amount] & 0xFFFFFFFFL);
+        bitCount += amount;
+        if (bitCount >= 32) {
+            bitCount -= 32;
+            buf.writeInt((int) (bitBuffer >>> bitCount));
         }
         return this;
     }
@@ -1007,5 +1036,32 @@ public final class MessageBuilder implements Message {
     public ByteBuf buffer() {
         return buf;
     }
+
+    @Override
+    public int refCnt() {
+        return buf.refCnt();
+    }
+
+    @Override
+    public MessageBuilder retain() {
+        buf.retain();
+        return this;
+    }
+
+    @Override
+    public MessageBuilder retain(int increment) {
+        buf.retain(increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return buf.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return buf.release(decrement);
+    }
 }
 
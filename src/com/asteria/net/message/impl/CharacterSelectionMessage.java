@@ -74,6 +74,7 @@ public final class CharacterSelectionMessage implements InputMessageListener {
             values[cursor++] = value;
         }
         player.getAppearance().setValues(values);
+        player.setCachedAppearance(null);
         player.getFlags().set(Flag.APPEARANCE);
         player.getMessages().sendCloseWindows();
     }
@@ -56,6 +56,29 @@ public abstract class Task {
      */
     private boolean running;
 
+    /**
+     * The task queue this task has been submitted to, or {@code null} if it is
+     * not pending on any task queue.
+     */
+    private TaskQueue queue;
+
+    /**
+     * The order in which this task was submitted to its task queue.
+     */
+    private long order;
+
+    /**
+     * The tick this task is scheduled on the timing wheel for, or {@code -1}
+     * if it is not on the timing wheel.
+     */
+    private long deadline = -1;
+
+    /**
+     * The last tick of the task queue that has been applied to the counters of
+     * this task.
+     */
+    private long synced;
+
     /**
      * Creates a new {@link Task}.
      *
@@ -137,6 +160,8 @@ public abstract class Task {
     public final void cancel() {
         if (running) {
             running = false;
+            if (queue != null)
+                queue.reschedule(this);
             onCancel();
         }
     }
@@ -149,9 +174,13 @@ public abstract class Task {
      *            the duration to pause this task for.
      */
     public final void pause(int duration) {
+        if (queue != null)
+            queue.synchronize(this);
         if (pauseDelay > 0)
             throw new IllegalStateException("This task is already paused!");
         this.pauseDelay = duration;
+        if (queue != null)
+            queue.reschedule(this);
     }
 
     /**
@@ -170,7 +199,10 @@ public abstract class Task {
      * @return an instance of this task.
      */
     public final Task attach(Object key) {
+        Object previous = this.key;
         this.key = Objects.requireNonNull(key);
+        if (queue != null)
+            queue.rekey(this, previous);
         return this;
     }
 
@@ -182,7 +214,44 @@ public abstract class Task {
      */
     public final void newDelay(int delay) {
         Preconditions.checkArgument(delay >= 0);
+        if (queue != null)
+            queue.synchronize(this);
         this.delay = delay;
+        if (queue != null)
+            queue.reschedule(this);
+    }
+
+    /**
+     * Gets the amount of ticks until this task will next need to be executed,
+     * provided its delay is not modified in the meantime.
+     *
+     * @return the amount of ticks until execution.
+     */
+    final int remaining() {
+        int remaining = Math.max(delay - counter, 1);
+        return pauseDelay > 0 ? pauseDelay - 1 + remaining : remaining;
+    }
+
+    /**
+     * Applies {@code ticks} sequences to the counters of this task in one go,
+     * as if {@code needsExecute()} had been invoked that many times. The task
+     * must not need to be executed during any of these ticks.
+     *
+     * @param ticks
+     *            the amount of ticks to apply.
+     */
+    final void skip(int ticks) {
+        if (ticks <= 0)
+            return;
+        if (pauseDelay > 0) {
+            int paused = Math.min(ticks, pauseDelay - 1);
+            pauseDelay -= paused;
+            ticks -= paused;
+            if (ticks == 0)
+                return;
+            pauseDelay = 0;
+        }
+        counter += ticks;
     }
 
     /**
@@ -212,4 +281,80 @@ public abstract class Task {
     public final boolean isRunning() {
         return running;
     }
+
+    /**
+     * Gets the task queue this task has been submitted to.
+     *
+     * @return the task queue, or {@code null} if not pending on one.
+     */
+    final TaskQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Sets the value for {@link Task#queue}.
+     *
+     * @param queue
+     *            the new value to set.
+     */
+    final void setQueue(TaskQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Gets the order in which this task was submitted to its task queue.
+     *
+     * @return the submission order.
+     */
+    final long getOrder() {
+        return order;
+    }
+
+    /**
+     * Sets the value for {@link Task#order}.
+     *
+     * @param order
+     *            the new value to set.
+     */
+    final void setOrder(long order) {
+        this.order = order;
+    }
+
+    /**
+     * Gets the tick this task is scheduled on the timing wheel for.
+     *
+     * @return the scheduled tick, or {@code -1} if not on the timing wheel.
+     */
+    final long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the value for {@link Task#deadline}.
+     *
+     * @param deadline
+     *            the new value to set.
+     */
+    final void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Gets the last tick that has been applied to the counters of this task.
+     *
+     * @return the last synchronized tick.
+     */
+    final long getSynced() {
+        return synced;
+    }
+
+    /**
+     * Sets the value for {@link Task#synced}.
+     *
+     * @param synced
+     *            the new value to set.
+     */
+    final void setSynced(long synced) {
+        this.synced = synced;
+    }
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.asteria.task;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.base.Preconditions;
 
@@ -13,6 +20,13 @@ import com.google.common.base.Preconditions;
  * makes sure tasks are stopped when requested and executed at the correct time.
  * <p>
  * <p>
+ * Pending tasks are held on a hashed timing wheel, keyed on the tick they will
+ * next need to be executed. This means only the tasks that are due are touched
+ * every sequence, rather than every single pending task. The exception to this
+ * are tasks that override {@link Task#onSequence()}, which must be notified
+ * every sequence and are therefore kept in a separate list.
+ * <p>
+ * <p>
  * The data structures that hold tasks for processing are not thread safe, which
  * means tasks should only be submitted on the main game thread.
  *
@@ -21,14 +35,68 @@ import com.google.common.base.Preconditions;
 public final class TaskQueue {
 
     /**
-     * The list that holds all of the pending tasks that are awaiting execution.
+     * The amount of slots on the timing wheel, must be a power of two. Tasks
+     * that are due further away than this many ticks are revisited once every
+     * revolution of the wheel.
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * The cache of task types to whether or not they override
+     * {@link Task#onSequence()}.
+     */
+    private static final ClassValue<Boolean> SEQUENCED = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("onSequence").getDeclaringClass() != Task.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    /**
+     * The timing wheel that holds all of the pending tasks that are awaiting
+     * execution, with each slot holding the tasks due on ticks congruent to
+     * its index.
+     */
+    private final List<List<Task>> wheel = Stream.generate(() -> new ArrayList<Task>()).limit(WHEEL_SIZE).collect(Collectors
+        .toList());
+
+    /**
+     * The list that holds all of the pending tasks that must be sequenced
+     * every tick.
+     */
+    private final List<Task> sequencedTasks = new LinkedList<>();
+
+    /**
+     * The list that holds the tasks taken off of the timing wheel this tick,
+     * which will be placed back on it once they have been executed.
+     */
+    private final List<Task> dueTasks = new ArrayList<>();
+
+    /**
+     * The list that holds all of the tasks that are ready to be executed.
+     */
+    private final List<Task> runTasks = new ArrayList<>(50);
+
+    /**
+     * The map of key attachments to the pending tasks bound with them. Keys are
+     * compared by identity, as character keys do not have stable hash codes.
      */
-    private final List<Task> pendingTasks = new LinkedList<>();
+    private final Map<Object, Set<Task>> keys = new IdentityHashMap<>();
 
     /**
-     * The queue that holds all of the tasks that are ready to be executed.
+     * The current tick of this task queue.
      */
-    private final Queue<Task> runTasks = new ArrayDeque<>(50);
+    private long tick;
+
+    /**
+     * The amount of tasks that have been submitted to this task queue, used to
+     * execute tasks in the order they were submitted.
+     */
+    private long submitted;
 
     /**
      * Queues pending tasks that are ready to be executed and executes tasks
@@ -38,7 +106,9 @@ public final class TaskQueue {
      *             if any errors occur while processing the tasks.
      */
     public void sequence() throws Exception {
-        Iterator<Task> $it = pendingTasks.iterator();
+        tick++;
+
+        Iterator<Task> $it = sequencedTasks.iterator();
         while ($it.hasNext()) {
             Task t = $it.next();
             t.onSequence();
@@ -46,43 +116,213 @@ public final class TaskQueue {
                 runTasks.add(t);
             } else if (!t.isRunning()) {
                 $it.remove();
+                unregister(t);
             }
         }
 
-        Task t;
-        while ((t = runTasks.poll()) != null) {
-            try {
-                t.execute();
-            } catch (Throwable ex) {
-                ex.printStackTrace();
-                t.onThrowable(ex);
+        List<Task> slot = slot(tick);
+        int kept = 0;
+        for (int index = 0; index < slot.size(); index++) {
+            Task t = slot.get(index);
+            if (!t.isRunning()) {
+                t.setDeadline(-1);
+                unregister(t);
+            } else if (t.getDeadline() == tick) {
+                t.setDeadline(-1);
+                t.skip((int) (tick - t.getSynced() - 1));
+                t.setSynced(tick);
+                dueTasks.add(t);
+                if (t.needsExecute())
+                    runTasks.add(t);
+            } else {
+                slot.set(kept++, t);
             }
         }
+        slot.subList(kept, slot.size()).clear();
+
+        try {
+            runTasks.sort(Comparator.comparingLong(Task::getOrder));
+            for (Task t : runTasks) {
+                try {
+                    t.execute();
+                } catch (Throwable ex) {
+                    ex.printStackTrace();
+                    t.onThrowable(ex);
+                }
+            }
+        } finally {
+            runTasks.clear();
+            for (Task t : dueTasks) {
+                if (t.isRunning()) {
+                    schedule(t);
+                } else {
+                    unregister(t);
+                }
+            }
+            dueTasks.clear();
+        }
     }
 
     /**
-     * Submits {@code task} to this task handler. The task must be running for
-     * it to be successfully submitted.
+     * Submits {@code task} to this task handler. The task must be running and
+     * not already submitted for it to be successfully submitted.
      *
      * @param task
      *            the task to submit to this task handler.
      */
     public void submit(Task task) {
         Preconditions.checkArgument(task.isRunning());
+        Preconditions.checkState(task.getQueue() == null, "task already submitted");
         task.onSubmit();
         if (task.isInstant())
             task.execute();
-        if (task.isRunning())
-            pendingTasks.add(task);
+        if (task.isRunning()) {
+            task.setQueue(this);
+            task.setOrder(submitted++);
+            index(task, task.getKey());
+            task.setSynced(tick);
+            if (SEQUENCED.get(task.getClass())) {
+                sequencedTasks.add(task);
+            } else {
+                schedule(task);
+            }
+        }
     }
 
     /**
-     * Cancels all tasks with {@code key} as their key attachment.
+     * Cancels all tasks with {@code key} as their key attachment. This only
+     * touches the tasks bound with the key.
      *
      * @param key
      *            the key to cancel all tasks with.
      */
     public void cancel(Object key) {
-        pendingTasks.stream().filter(t -> t.getKey().equals(key)).forEach(t -> t.cancel());
+        Set<Task> tasks = keys.get(key);
+        if (tasks == null)
+            return;
+        new ArrayList<>(tasks).forEach(t -> t.cancel());
+    }
+
+    /**
+     * Retrieves all running tasks with {@code key} as their key attachment.
+     *
+     * @param key
+     *            the key to retrieve all tasks with.
+     * @return the list of running tasks, in the order they were submitted.
+     */
+    public List<Task> getTasks(Object key) {
+        Set<Task> tasks = keys.get(key);
+        if (tasks == null)
+            return Collections.emptyList();
+        return tasks.stream().filter(Task::isRunning).collect(Collectors.toList());
+    }
+
+    /**
+     * Moves {@code task} within the key index after its key attachment has
+     * been changed from {@code previous}.
+     *
+     * @param task
+     *            the task that has been attached to a new key.
+     * @param previous
+     *            the previous key attachment of the task.
+     */
+    void rekey(Task task, Object previous) {
+        unindex(task, previous);
+        index(task, task.getKey());
+    }
+
+    /**
+     * Applies every tick that has passed since {@code task} was last
+     * synchronized to its counters. This must be done before the delay of a
+     * task on the timing wheel is modified.
+     *
+     * @param task
+     *            the task to synchronize.
+     */
+    void synchronize(Task task) {
+        if (task.getDeadline() == -1)
+            return;
+        task.skip((int) (tick - task.getSynced()));
+        task.setSynced(tick);
+    }
+
+    /**
+     * Moves {@code task} to the correct slot on the timing wheel after its
+     * delay has been modified, or removes it from the wheel if it is no longer
+     * running.
+     *
+     * @param task
+     *            the task to reschedule.
+     */
+    void reschedule(Task task) {
+        if (task.getDeadline() == -1)
+            return;
+        slot(task.getDeadline()).remove(task);
+        task.setDeadline(-1);
+        if (!task.isRunning()) {
+            unregister(task);
+            return;
+        }
+        schedule(task);
+    }
+
+    /**
+     * Removes {@code task} from this task queue once it is no longer running.
+     *
+     * @param task
+     *            the task to remove.
+     */
+    private void unregister(Task task) {
+        task.setQueue(null);
+        unindex(task, task.getKey());
+    }
+
+    /**
+     * Adds {@code task} to the key index under {@code key}.
+     *
+     * @param task
+     *            the task to add.
+     * @param key
+     *            the key to add the task under.
+     */
+    private void index(Task task, Object key) {
+        keys.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(task);
+    }
+
+    /**
+     * Removes {@code task} from the key index under {@code key}.
+     *
+     * @param task
+     *            the task to remove.
+     * @param key
+     *            the key the task is indexed under.
+     */
+    private void unindex(Task task, Object key) {
+        Set<Task> tasks = keys.get(key);
+        if (tasks != null && tasks.remove(task) && tasks.isEmpty())
+            keys.remove(key);
+    }
+
+    /**
+     * Places {@code task} on the timing wheel in the slot of the tick it will
+     * next need to be executed.
+     *
+     * @param task
+     *            the task to schedule.
+     */
+    private void schedule(Task task) {
+        task.setDeadline(task.getSynced() + task.remaining());
+        slot(task.getDeadline()).add(task);
+    }
+
+    /**
+     * Gets the slot on the timing wheel for {@code tick}.
+     *
+     * @param tick
+     *            the tick to get the slot for.
+     * @return the slot on the timing wheel.
+     */
+    private List<Task> slot(long tick) {
+        return wheel.get((int) (tick & (WHEEL_SIZE - 1)));
     }
 }